@@ -0,0 +1,14 @@
+package fixtures;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// per-thread position over a power-of-two sized array of prepared inputs
+@State(Scope.Thread)
+public class Cursor {
+    private int next;
+
+    public <T> T next(T[] inputs) {
+        return inputs[next++ & (inputs.length - 1)];
+    }
+}
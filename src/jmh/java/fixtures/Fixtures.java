@@ -0,0 +1,50 @@
+package fixtures;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public final class Fixtures {
+    public static final LocalDate EPOCH = LocalDate.of(2000, 1, 1);
+
+    private Fixtures() {}
+
+    public static Drug[] drugs(int count) {
+        Drug[] drugs = new Drug[count];
+        for (int i = 0; i < count; i++) {
+            drugs[i] = new Drug("drug" + i);
+            drugs[i].setId("drug#" + i);
+        }
+        return drugs;
+    }
+
+    public static Dosage dosage() {
+        Dose dose = new Dose();
+        dose.setQuantity(3);
+        dose.setForm("pill");
+
+        Dosage dosage = new Dosage();
+        dosage.setDose(dose);
+        dosage.setDailyIntakeAmount(2);
+        return dosage;
+    }
+
+    public static Treatment treatment(Drug drug, int startDay, int length) {
+        Treatment t = new Treatment();
+        t.setDrug(drug);
+        t.setStartsOn(EPOCH.plusDays(startDay));
+        t.setPeriod(new TreatmentPeriod(length + 1, ChronoUnit.DAYS));
+        t.setStopsOn(EPOCH.plusDays(startDay + length));
+        return t;
+    }
+
+    // spreads treatments over enough days for a fair share of probes to miss
+    public static int days(int treatments, int drugs) {
+        return treatments / drugs * 30 + 30;
+    }
+}
@@ -0,0 +1,58 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import fixtures.Cursor;
+import org.openjdk.jmh.annotations.*;
+import usecases.TreatmentGateway;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static fixtures.Fixtures.days;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DoesTreatmentExistBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int treatments;
+
+    @Param({"1000"})
+    private int drugs;
+
+    @Param({"indexed", "offHeap"})
+    private String store;
+
+    private TreatmentGateway gateway;
+    private Treatment[] probes;
+
+    @Setup
+    public void setUp() {
+        gateway = store.equals("offHeap") ? new OffHeapTreatmentGateway() : new IndexedTreatmentGateway();
+
+        Drug[] catalog = drugs(drugs);
+        Random random = new Random(42);
+        int days = days(treatments, drugs);
+
+        for (int i = 0; i < treatments; i++) {
+            gateway.save(treatment(catalog[random.nextInt(drugs)], random.nextInt(days), random.nextInt(30)));
+        }
+
+        probes = new Treatment[4096];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = treatment(catalog[random.nextInt(drugs)], random.nextInt(days), random.nextInt(30));
+        }
+    }
+
+    @Benchmark
+    public boolean doesTreatmentExist(Cursor cursor) {
+        return gateway.doesTreatmentExist(cursor.next(probes));
+    }
+}
@@ -0,0 +1,90 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static fixtures.Fixtures.days;
+import static fixtures.Fixtures.dosage;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+/*
+  Time to open a FileStore that holds the given number of treatments, either
+  from a checkpoint ("snapshot") or by replaying the whole log ("log"). Every
+  open is measured once, cold, as a restart would be.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SnapshotRestoreBenchmark {
+    private static final int BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int treatments;
+
+    @Param({"1000"})
+    private int drugs;
+
+    @Param({"snapshot", "log"})
+    private String from;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("restore");
+        Random random = new Random(42);
+        int days = days(treatments, drugs);
+
+        try (FileStore store = FileStore.open(directory)) {
+            List<Drug> catalog = new ArrayList<>();
+            for (Drug drug : drugs(drugs)) catalog.add(store.drugs().save(drug));
+            Dosage dosage = store.dosages().save(dosage());
+
+            List<Treatment> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < treatments; i++) {
+                Treatment treatment = treatment(catalog.get(random.nextInt(drugs)), random.nextInt(days), random.nextInt(30));
+                // a patient each, so none of them overlap
+                treatment.setPatientId("patient#" + i);
+                treatment.setDosage(dosage);
+                batch.add(treatment);
+
+                if (batch.size() == BATCH || i == treatments - 1) {
+                    store.treatments().saveAll(batch);
+                    batch.clear();
+                }
+            }
+
+            if (from.equals("snapshot")) store.checkpoint();
+        }
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (FileStore store = FileStore.open(directory)) {
+            return store.treatments().size();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
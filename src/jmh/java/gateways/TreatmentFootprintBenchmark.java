@@ -0,0 +1,104 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static fixtures.Fixtures.days;
+import static fixtures.Fixtures.dosage;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+/*
+  Heap kept by one full read of a treatment set. "copies" gives every treatment
+  read a drug, dosage, dose and period of its own, as clone-on-read did;
+  "shared" keeps what IndexedTreatmentGateway hands out, whose treatments
+  share the flyweights. Run with -prof gc to also see what a read allocates.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TreatmentFootprintBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int treatments;
+
+    @Param({"1000"})
+    private int drugs;
+
+    @Param({"copies", "shared"})
+    private String layout;
+
+    private IndexedTreatmentGateway gateway;
+
+    // the bytes the last read kept, reported next to the time it took
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        Drug[] catalog = drugs(drugs);
+        Random random = new Random(42);
+        int days = days(treatments, drugs);
+
+        // as decoded from requests or logs: nothing shared between treatments
+        gateway = new IndexedTreatmentGateway();
+        for (int i = 0; i < treatments; i++) {
+            Treatment treatment = treatment(catalog[random.nextInt(drugs)], random.nextInt(days), random.nextInt(30));
+            treatment.setDrug(copyOf(treatment.getDrug()));
+            treatment.setDosage(dosage());
+            treatment.getDosage().setId("dosage#" + i);
+            gateway.save(treatment);
+        }
+    }
+
+    @Benchmark
+    public List<Treatment> readAll(Footprint footprint) {
+        long before = usedHeap();
+
+        List<Treatment> read = gateway.findAll();
+        if (layout.equals("copies")) read.replaceAll(TreatmentFootprintBenchmark::copyOf);
+
+        footprint.retainedBytes = usedHeap() - before;
+        return read;
+    }
+
+    private static Treatment copyOf(Treatment treatment) {
+        Treatment copy = new Treatment();
+        copy.setId(treatment.getId());
+        copy.setDrug(copyOf(treatment.getDrug()));
+
+        Dosage dosage = dosage();
+        dosage.setId(treatment.getDosage().getId());
+        copy.setDosage(dosage);
+
+        copy.setPeriod(new TreatmentPeriod(treatment.getPeriod().getAmount(), treatment.getPeriod().getUnit()));
+        copy.setStartsOn(treatment.getStartsOn());
+        copy.setStopsOn(treatment.getStopsOn());
+        return copy;
+    }
+
+    private static Drug copyOf(Drug drug) {
+        Drug copy = new Drug(drug.getName());
+        copy.setId(drug.getId());
+        return copy;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package gateways;
+
+import doubles.TreatmentInMemoryGateway;
+import entities.Drug;
+import entities.Treatment;
+import fixtures.Cursor;
+import org.openjdk.jmh.annotations.*;
+import usecases.TreatmentGateway;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static fixtures.Fixtures.days;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+// interval tree against the linear scan it replaces; see DoesTreatmentExistBenchmark for large sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TreatmentOverlapBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int treatments;
+
+    @Param({"100"})
+    private int drugs;
+
+    private TreatmentGateway linear;
+    private TreatmentGateway indexed;
+    private Treatment[] probes;
+
+    @Setup
+    public void setUp() {
+        linear = new TreatmentInMemoryGateway();
+        indexed = new IndexedTreatmentGateway();
+
+        Drug[] catalog = drugs(drugs);
+        Random random = new Random(42);
+        int days = days(treatments, drugs);
+
+        // each gateway sets the id of what it saves, so each gets a treatment of its own
+        for (int i = 0; i < treatments; i++) {
+            Drug drug = catalog[random.nextInt(drugs)];
+            int startDay = random.nextInt(days);
+            int length = random.nextInt(30);
+            linear.save(treatment(drug, startDay, length));
+            indexed.save(treatment(drug, startDay, length));
+        }
+
+        probes = new Treatment[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = treatment(catalog[random.nextInt(drugs)], random.nextInt(days), random.nextInt(30));
+        }
+    }
+
+    @Benchmark
+    public boolean linearScan(Cursor cursor) {
+        return linear.doesTreatmentExist(cursor.next(probes));
+    }
+
+    @Benchmark
+    public boolean intervalTree(Cursor cursor) {
+        return indexed.doesTreatmentExist(cursor.next(probes));
+    }
+}
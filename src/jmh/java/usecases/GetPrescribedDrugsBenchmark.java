@@ -0,0 +1,57 @@
+package usecases;
+
+import doubles.DosageInMemoryGateway;
+import doubles.DrugInMemoryGateway;
+import doubles.TreatmentInMemoryGateway;
+import entities.Drug;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GetPrescribedDrugsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int treatments;
+
+    @Param({"100"})
+    private int drugs;
+
+    private GetPrescribedDrugsUseCase useCase;
+
+    @Setup
+    public void setUp() {
+        TreatmentInMemoryGateway treatmentGateway = new TreatmentInMemoryGateway();
+        DrugInMemoryGateway drugGateway = new DrugInMemoryGateway(treatmentGateway);
+
+        Drug[] catalog = drugs(drugs);
+        for (int i = 0; i < catalog.length; i++) catalog[i] = drugGateway.save(new Drug(catalog[i].getName()));
+
+        Random random = new Random(42);
+        for (int i = 0; i < treatments; i++) {
+            treatmentGateway.save(treatment(catalog[random.nextInt(drugs)], i, 0));
+        }
+
+        useCase = new GetPrescribedDrugsUseCase(drugGateway, new DosageInMemoryGateway());
+    }
+
+    @Benchmark
+    public List<Drug> getPrescribedDrugs() {
+        return useCase.getPrescribedDrugs();
+    }
+
+    @Benchmark
+    public Page<Drug> getFirstPageOfPrescribedDrugs() {
+        return useCase.getPrescribedDrugs(null, 20);
+    }
+}
@@ -0,0 +1,68 @@
+package usecases.dosecalendar;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static fixtures.Fixtures.EPOCH;
+import static fixtures.Fixtures.dosage;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DoseCalendarBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int treatments;
+
+    @Param({"1000"})
+    private int drugs;
+
+    private List<Treatment> prescribed;
+    private DoseCalendar calendar;
+    private LocalDate last;
+
+    @Setup
+    public void setUp() {
+        Drug[] catalog = drugs(drugs);
+        Dosage dosage = dosage();
+
+        Random random = new Random(42);
+        prescribed = new ArrayList<>(treatments);
+        for (int i = 0; i < treatments; i++) {
+            Treatment t = treatment(catalog[random.nextInt(drugs)], random.nextInt(365), random.nextInt(90));
+            t.setDosage(dosage);
+            prescribed.add(t);
+        }
+
+        calendar = DoseCalendar.of(prescribed);
+        last = EPOCH.plusDays(364);
+    }
+
+    @Benchmark
+    public DoseCalendar build() {
+        return DoseCalendar.of(prescribed);
+    }
+
+    @Benchmark
+    public long sweepByDay() {
+        return calendar.byDay(EPOCH, last).mapToLong(DailyDose::getQuantity).sum();
+    }
+
+    @Benchmark
+    public long sweepByDrugInParallel() {
+        return calendar.byDrug(EPOCH, last).parallel().mapToLong(DailyDose::getQuantity).sum();
+    }
+}
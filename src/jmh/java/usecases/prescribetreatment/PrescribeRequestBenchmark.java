@@ -0,0 +1,42 @@
+package usecases.prescribetreatment;
+
+import org.openjdk.jmh.annotations.*;
+import usecases.UseCaseValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+  Request building, validation and command parsing for a fresh request per
+  call versus one reused request. Compare gc.alloc.rate.norm from the gc
+  profiler to see the per-request allocation.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrescribeRequestBenchmark {
+    private final UseCaseValidator<PrescribeTreatmentCommand> validator = new PrescribeTreatmentValidator();
+    private final PrescribeTreatmentRequest pooled = new PrescribeTreatmentRequest();
+
+    @Benchmark
+    public PrescribeTreatmentCommand freshRequest() {
+        return parse(new PrescribeTreatmentRequest());
+    }
+
+    @Benchmark
+    public PrescribeTreatmentCommand pooledRequest() {
+        return parse(pooled.reset());
+    }
+
+    private PrescribeTreatmentCommand parse(PrescribeTreatmentRequest request) {
+        request.addStartDate("2017-03-16")
+                .addPeriodAmount("1")
+                .addPeriodUnit("Months")
+                .addDrugId("drug#1")
+                .addDosageId("dosage#1");
+
+        return validator.validate(request).getValue();
+    }
+}
@@ -0,0 +1,100 @@
+package usecases.prescribetreatment;
+
+import doubles.DosageInMemoryGateway;
+import doubles.DrugInMemoryGateway;
+import entities.Dosage;
+import entities.Drug;
+import gateways.IndexedTreatmentGateway;
+import org.openjdk.jmh.annotations.*;
+import usecases.TreatmentGateway;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fixtures.Fixtures.EPOCH;
+import static fixtures.Fixtures.dosage;
+import static fixtures.Fixtures.drugs;
+import static fixtures.Fixtures.treatment;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrescribeTreatmentBenchmark {
+    private static final int START_DATES = 1 << 16;
+
+    @Param({"1000", "100000"})
+    private int treatments;
+
+    @Param({"100"})
+    private int drugs;
+
+    private PrescribeTreatmentUseCase useCase;
+    private Drug[] catalog;
+    private Dosage dosage;
+    private String[] startDates;
+    private AtomicInteger prescriptions = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        TreatmentGateway treatmentGateway = new IndexedTreatmentGateway();
+        DrugInMemoryGateway drugGateway = new DrugInMemoryGateway();
+        DosageInMemoryGateway dosageGateway = new DosageInMemoryGateway();
+
+        catalog = drugs(drugs);
+        for (int i = 0; i < catalog.length; i++) catalog[i] = drugGateway.save(new Drug(catalog[i].getName()));
+        dosage = dosageGateway.save(dosage());
+
+        // stored treatments lie before EPOCH, one day each, so prescriptions from EPOCH on never overlap them
+        Random random = new Random(42);
+        for (int i = 0; i < treatments; i++) {
+            treatmentGateway.save(treatment(catalog[random.nextInt(drugs)], -1 - i, 0));
+        }
+
+        startDates = new String[START_DATES];
+        for (int i = 0; i < START_DATES; i++) startDates[i] = EPOCH.plusDays(i).toString();
+
+        useCase = new PrescribeTreatmentUseCase(
+                treatmentGateway, drugGateway, dosageGateway, new PrescribeTreatmentValidator());
+    }
+
+    @Benchmark
+    public Object prescribe(Request request) {
+        // every (drug, day) pair is used once, so each prescription is accepted
+        int n = prescriptions.getAndIncrement();
+        Drug drug = catalog[(n / START_DATES) % catalog.length];
+
+        return useCase.prescribe(request.of(startDates[n % START_DATES], drug, dosage));
+    }
+
+    @Benchmark
+    public Object prescribeOverlapping(Request request) {
+        try {
+            return useCase.prescribe(request.of(EPOCH.minusDays(1).toString(), catalog[0], dosage));
+        } catch (PrescribeTreatmentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object tryPrescribeOverlapping(Request request) {
+        return useCase.tryPrescribe(request.of(EPOCH.minusDays(1).toString(), catalog[0], dosage));
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        private final PrescribeTreatmentRequest request = new PrescribeTreatmentRequest();
+
+        PrescribeTreatmentRequest of(String startDate, Drug drug, Dosage dosage) {
+            return request.reset()
+                    .addStartDate(startDate)
+                    .addPeriodAmount("1")
+                    .addPeriodUnit("Days")
+                    .addDrugId(drug.getId())
+                    .addDosageId(dosage.getId());
+        }
+    }
+}
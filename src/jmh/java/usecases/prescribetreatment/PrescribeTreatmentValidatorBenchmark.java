@@ -0,0 +1,41 @@
+package usecases.prescribetreatment;
+
+import org.openjdk.jmh.annotations.*;
+import usecases.UseCaseValidator;
+import usecases.ValidationResult;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PrescribeTreatmentValidatorBenchmark {
+    private final UseCaseValidator<PrescribeTreatmentCommand> validator = new PrescribeTreatmentValidator();
+
+    @Benchmark
+    public ValidationResult<PrescribeTreatmentCommand> validRequest(Request request) {
+        return validator.validate(request.of("2017-03-16", "1"));
+    }
+
+    @Benchmark
+    public ValidationResult<PrescribeTreatmentCommand> invalidRequest(Request request) {
+        return validator.validate(request.of("2017 03 16", "one"));
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        private final PrescribeTreatmentRequest request = new PrescribeTreatmentRequest();
+
+        PrescribeTreatmentRequest of(String startDate, String periodAmount) {
+            return request.reset()
+                    .addStartDate(startDate)
+                    .addPeriodAmount(periodAmount)
+                    .addPeriodUnit("Months")
+                    .addDrugId("drug#1")
+                    .addDosageId("dosage#1");
+        }
+    }
+}
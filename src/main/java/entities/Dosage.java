@@ -1,5 +1,7 @@
 package entities;
 
+import java.util.Objects;
+
 public class Dosage extends Entity {
     private Dose dose;
     private int dailyIntakeAmount;
@@ -10,6 +12,7 @@ public class Dosage extends Entity {
     }
 
     public void setDose(Dose dose) {
+        checkMutable();
         this.dose = dose;
     }
 
@@ -18,10 +21,12 @@ public class Dosage extends Entity {
     }
 
     public void setDailyIntakeAmount(int amount) {
+        checkMutable();
         this.dailyIntakeAmount = amount;
     }
 
     public void setTreatmentId(String treatmentId) {
+        checkMutable();
         this.treatmentId = treatmentId;
     }
 
@@ -29,6 +34,16 @@ public class Dosage extends Entity {
         return treatmentId;
     }
 
+    @Override
+    protected void thawParts() throws CloneNotSupportedException {
+        if (Objects.nonNull(dose)) dose = (Dose) dose.clone();
+    }
+
+    @Override
+    protected void freezeParts() {
+        if (Objects.nonNull(dose)) dose = (Dose) dose.frozenCopy();
+    }
+
     @Override
     public String toString() {
         return String.format("%s{id='%s', intakes='%s', dose='%s'}",
@@ -9,6 +9,7 @@ public class Dose extends Entity {
     }
 
     public void setQuantity(int quantity) {
+        checkMutable();
         this.quantity = quantity;
     }
 
@@ -17,6 +18,7 @@ public class Dose extends Entity {
     }
 
     public void setForm(String form) {
+        checkMutable();
         this.form = form;
     }
 
@@ -14,6 +14,7 @@ public class Drug extends Entity {
     }
 
     public void setName(String name) {
+        checkMutable();
         this.name = name;
     }
 
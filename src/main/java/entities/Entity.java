@@ -4,8 +4,10 @@ import java.util.Objects;
 
 public class Entity implements Cloneable {
     private String id;
+    private boolean frozen;
 
     public void setId(String id) {
+        checkMutable();
         this.id = id;
     }
 
@@ -23,8 +25,44 @@ public class Entity implements Cloneable {
         return Objects.equals(this.getId(), other.getId());
     }
 
+    // a clone can be changed again, down to the entities it holds, even when this entity is frozen
     @Override
     public Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        Entity clone = (Entity) super.clone();
+        clone.frozen = false;
+        clone.thawParts();
+        return clone;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /*
+      This entity when it is frozen already, otherwise a copy of it that can
+      no longer be changed, down to the entities and values it holds, so it
+      can be handed to any number of readers without copying it again.
+    */
+    public Entity frozenCopy() {
+        if (frozen) return this;
+
+        try {
+            Entity copy = (Entity) super.clone();
+            copy.freezeParts();
+            copy.frozen = true;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // replaces what a fresh copy still shares with the original by frozen copies
+    protected void freezeParts() {}
+
+    // replaces what a clone still shares with the original by clones
+    protected void thawParts() throws CloneNotSupportedException {}
+
+    protected void checkMutable() {
+        if (frozen) throw new UnsupportedOperationException(String.format("%s is frozen", this));
     }
 }
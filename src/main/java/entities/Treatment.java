@@ -1,15 +1,28 @@
 package entities;
 
 import java.time.LocalDate;
+import java.util.Objects;
 
 public class Treatment extends Entity {
+    private String patientId;
     private Drug drug;
     private Dosage dosage;
     private LocalDate startsOn;
     private TreatmentPeriod period;
     private LocalDate stopsOn;
 
+    // null for treatments that belong to no patient in particular
+    public void setPatientId(String patientId) {
+        checkMutable();
+        this.patientId = patientId;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
     public void setDrug(Drug drug) {
+        checkMutable();
         this.drug = drug;
     }
 
@@ -18,6 +31,7 @@ public class Treatment extends Entity {
     }
 
     public void setDosage(Dosage dosage) {
+        checkMutable();
         this.dosage = dosage;
     }
 
@@ -26,6 +40,7 @@ public class Treatment extends Entity {
     }
 
     public void setStartsOn(LocalDate startsOn) {
+        checkMutable();
         this.startsOn = startsOn;
     }
 
@@ -34,6 +49,7 @@ public class Treatment extends Entity {
     }
 
     public void setPeriod(TreatmentPeriod period) {
+        checkMutable();
         this.period = period;
     }
 
@@ -42,6 +58,7 @@ public class Treatment extends Entity {
     }
 
     public void setStopsOn(LocalDate stopsOn) {
+        checkMutable();
         this.stopsOn = stopsOn;
     }
 
@@ -49,7 +66,15 @@ public class Treatment extends Entity {
         return stopsOn;
     }
 
+    @Override
+    protected void freezeParts() {
+        if (Objects.nonNull(drug)) drug = (Drug) drug.frozenCopy();
+        if (Objects.nonNull(dosage)) dosage = (Dosage) dosage.frozenCopy();
+        if (Objects.nonNull(period)) period = period.frozenCopy();
+    }
+
     public boolean doesOverlap(Treatment other) {
+        if (!Objects.equals(getPatientId(), other.getPatientId())) return false;
         if (!getDrug().equals(other.getDrug())) return false;
         if (getStartsOn().isAfter(other.getStopsOn()) || getStopsOn().isBefore(other.getStartsOn())) return false;
         return true;
@@ -7,6 +7,7 @@ import java.util.Objects;
 public class TreatmentPeriod {
     private ChronoUnit unit;
     private int amount;
+    private boolean frozen;
 
     public TreatmentPeriod() {}
 
@@ -16,6 +17,7 @@ public class TreatmentPeriod {
     }
 
     public void setUnit(ChronoUnit unit) {
+        checkMutable();
         this.unit = unit;
     }
 
@@ -28,9 +30,23 @@ public class TreatmentPeriod {
     }
 
     public void setAmount(int amount) {
+        checkMutable();
         this.amount = amount;
     }
 
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    // this period when it is frozen already, otherwise a copy of it that can no longer be changed
+    public TreatmentPeriod frozenCopy() {
+        if (frozen) return this;
+
+        TreatmentPeriod copy = new TreatmentPeriod(amount, unit);
+        copy.frozen = true;
+        return copy;
+    }
+
     public LocalDate calcEnd(LocalDate startsOn) {
         return startsOn.plus(getAmount(), getUnit()).minusDays(1);
     }
@@ -44,6 +60,15 @@ public class TreatmentPeriod {
                 Objects.equals(this.getUnit(), other.getUnit());
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAmount(), getUnit());
+    }
+
+    private void checkMutable() {
+        if (frozen) throw new UnsupportedOperationException(String.format("%s is frozen", this));
+    }
+
     @Override
     public String toString() {
         return String.format("{amount='%d', unit='%s'}", getAmount(), getUnit().name());
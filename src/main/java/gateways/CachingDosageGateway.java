@@ -0,0 +1,49 @@
+package gateways;
+
+import entities.Dosage;
+import usecases.DosageGateway;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class CachingDosageGateway implements DosageGateway {
+    private final DosageGateway gateway;
+    private final EntityCache<Dosage> cache;
+
+    public CachingDosageGateway(DosageGateway gateway, EntityCache<Dosage> cache) {
+        this.gateway = gateway;
+        this.cache = cache;
+    }
+
+    @Override
+    public Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId) {
+        return gateway.findDrugDosageByTreatmentId(drugId, treatmentId);
+    }
+
+    @Override
+    public Dosage save(Dosage dosage) {
+        Dosage saved = gateway.save(dosage);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Dosage findById(String dosageId) {
+        return cache.getOrLoad(dosageId, gateway::findById);
+    }
+
+    @Override
+    public List<Dosage> findByIds(Collection<String> dosageIds) {
+        return cache.getAllOrLoad(dosageIds, gateway::findByIds);
+    }
+
+    @Override
+    public Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds) {
+        return gateway.findDosagesByDrugIds(drugIds);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,53 @@
+package gateways;
+
+import entities.Drug;
+import usecases.DrugGateway;
+
+import java.util.Collection;
+import java.util.List;
+
+public class CachingDrugGateway implements DrugGateway {
+    private final DrugGateway gateway;
+    private final EntityCache<Drug> cache;
+
+    public CachingDrugGateway(DrugGateway gateway, EntityCache<Drug> cache) {
+        this.gateway = gateway;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Drug> findAll() {
+        return gateway.findAll();
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs() {
+        return gateway.findPrescribedDrugs();
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        return gateway.findPrescribedDrugs(afterDrugId, limit);
+    }
+
+    @Override
+    public Drug save(Drug drug) {
+        Drug saved = gateway.save(drug);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Drug findById(String drugId) {
+        return cache.getOrLoad(drugId, gateway::findById);
+    }
+
+    @Override
+    public List<Drug> findByIds(Collection<String> drugIds) {
+        return cache.getAllOrLoad(drugIds, gateway::findByIds);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
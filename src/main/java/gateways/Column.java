@@ -0,0 +1,58 @@
+package gateways;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/*
+  Growable column of fixed-width ints kept off the heap. Values live in
+  direct buffers of CHUNK rows each, so growing adds a chunk and never
+  copies what is already stored. Not thread-safe; owners guard access.
+*/
+final class Column {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+
+    private final int width;
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+
+    private Column(int width) {
+        this.width = width;
+    }
+
+    static Column ofInts() {
+        return new Column(Integer.BYTES);
+    }
+
+    // values must fit a signed byte
+    static Column ofBytes() {
+        return new Column(Byte.BYTES);
+    }
+
+    int get(int row) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_BITS];
+        int offset = (row & (CHUNK - 1)) * width;
+        return width == Integer.BYTES ? chunk.getInt(offset) : chunk.get(offset);
+    }
+
+    void set(int row, int value) {
+        int chunkIndex = row >>> CHUNK_BITS;
+        if (chunkIndex >= chunks.length) grow(chunkIndex + 1);
+
+        ByteBuffer chunk = chunks[chunkIndex];
+        int offset = (row & (CHUNK - 1)) * width;
+        if (width == Integer.BYTES) {
+            chunk.putInt(offset, value);
+        } else {
+            chunk.put(offset, (byte) value);
+        }
+    }
+
+    private void grow(int chunkCount) {
+        int from = chunks.length;
+        chunks = Arrays.copyOf(chunks, chunkCount);
+        for (int i = from; i < chunkCount; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(CHUNK * width).order(ByteOrder.nativeOrder());
+        }
+    }
+}
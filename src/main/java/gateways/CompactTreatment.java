@@ -0,0 +1,127 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/*
+  Treatment as the gateways keep it: dates are epoch days and the drug is a
+  key from EntityKeys, so overlap tests in the indexes compare ints. Converts to
+  and from Treatment without loss for every date whose epoch day fits an int;
+  the drug, dosage and period it converts to are shared, frozen instances.
+*/
+final class CompactTreatment {
+    static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final ChronoUnit[] UNITS = ChronoUnit.values();
+    private static final byte NO_PERIOD = -1;
+    private static final byte NO_UNIT = -2;
+
+    private final String id;
+    private final String patientId;
+    private final int drugKey;
+    private final int startDay;
+    private final int stopDay;
+    private final int periodAmount;
+    private final byte periodUnit;
+    private final Dosage dosage;
+
+    private CompactTreatment(String id, String patientId, int drugKey, int startDay, int stopDay,
+                             int periodAmount, byte periodUnit, Dosage dosage) {
+        this.id = id;
+        this.patientId = patientId;
+        this.drugKey = drugKey;
+        this.startDay = startDay;
+        this.stopDay = stopDay;
+        this.periodAmount = periodAmount;
+        this.periodUnit = periodUnit;
+        this.dosage = dosage;
+    }
+
+    static CompactTreatment of(Treatment treatment, EntityKeys<Drug> drugKeys, Flyweights flyweights) {
+        TreatmentPeriod period = treatment.getPeriod();
+
+        return new CompactTreatment(
+                treatment.getId(),
+                treatment.getPatientId(),
+                drugKeys.register(treatment.getDrug()),
+                toDay(treatment.getStartsOn()),
+                toDay(treatment.getStopsOn()),
+                Objects.isNull(period) ? 0 : period.getAmount(),
+                toUnit(period),
+                flyweights.dosage(treatment.getDosage()));
+    }
+
+    Treatment toTreatment(EntityKeys<Drug> drugKeys, Flyweights flyweights) {
+        Treatment treatment = new Treatment();
+
+        treatment.setId(id);
+        treatment.setPatientId(patientId);
+        treatment.setDrug(drugKeys.entity(drugKey));
+        treatment.setDosage(dosage);
+        treatment.setStartsOn(toDate(startDay));
+        treatment.setStopsOn(toDate(stopDay));
+
+        treatment.setPeriod(flyweights.period(toPeriod(periodAmount, periodUnit)));
+
+        return treatment;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getPatientId() {
+        return patientId;
+    }
+
+    int getDrugKey() {
+        return drugKey;
+    }
+
+    int getStartDay() {
+        return startDay;
+    }
+
+    int getStopDay() {
+        return stopDay;
+    }
+
+    Dosage getDosage() {
+        return dosage;
+    }
+
+    static int toDay(LocalDate date) {
+        if (Objects.isNull(date)) return NO_DAY;
+
+        long day = date.toEpochDay();
+        if (day <= NO_DAY || day > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format("Date is out of the supported range: %s", date));
+        return (int) day;
+    }
+
+    // a query bound: dates past the supported range stand for its first or last day instead of failing the query
+    static int toBoundDay(LocalDate date) {
+        long day = date.toEpochDay();
+        return (int) Math.max(NO_DAY + 1L, Math.min(Integer.MAX_VALUE, day));
+    }
+
+    static LocalDate toDate(int day) {
+        return day == NO_DAY ? null : LocalDate.ofEpochDay(day);
+    }
+
+    static byte toUnit(TreatmentPeriod period) {
+        if (Objects.isNull(period)) return NO_PERIOD;
+        return Objects.isNull(period.getUnit()) ? NO_UNIT : (byte) period.getUnit().ordinal();
+    }
+
+    static TreatmentPeriod toPeriod(int amount, int unit) {
+        if (unit == NO_PERIOD) return null;
+        return new TreatmentPeriod(amount, unit == NO_UNIT ? null : UNITS[unit]);
+    }
+}
@@ -0,0 +1,68 @@
+package gateways;
+
+import java.util.Objects;
+
+/*
+  Daily demand of one drug as a pair of Fenwick trees over epoch days, so
+  adding a quantity to every day of a range and summing a range both take
+  O(log days). The first tree holds the difference array d, the second
+  d[i] * (i - 1); a prefix sum up to x is then sum(d) * x - sum(d * (i - 1)).
+
+  The trees span every int day but are sparse: only the nodes an add has
+  touched are kept, in a LongMap by index, so a treatment of any length
+  costs at most two paths of 33 nodes and nothing grows with the days it
+  covers. Products of quantities and indexes may wrap around; the prefix
+  sum is exact all the same, as long arithmetic is modulo 2^64.
+*/
+final class DemandTree {
+    // day NO_DAY + 1 is index 1; the last index only ends ranges that stop on Integer.MAX_VALUE
+    private static final long SIZE = 1L << 32;
+
+    private final LongMap<long[]> nodes = new LongMap<>();
+
+    // adds the daily quantity to every day from fromDay to toDay, both included
+    synchronized void add(int fromDay, int toDay, long quantity) {
+        update(index(fromDay), quantity);
+        update(index(toDay) + 1, -quantity);
+    }
+
+    synchronized long sum(int fromDay, int toDay) {
+        int from = Math.max(fromDay, CompactTreatment.NO_DAY + 1);
+        if (from > toDay) return 0;
+
+        return prefix(index(toDay)) - prefix(index(from) - 1);
+    }
+
+    synchronized int nodeCount() {
+        return nodes.size();
+    }
+
+    private static long index(int day) {
+        return (long) day - CompactTreatment.NO_DAY;
+    }
+
+    private void update(long index, long delta) {
+        long weight = delta * (index - 1);
+        for (long i = index; i <= SIZE; i += i & -i) {
+            long[] node = nodes.get(i);
+            if (Objects.isNull(node)) {
+                node = new long[2];
+                nodes.put(i, node);
+            }
+            node[0] += delta;
+            node[1] += weight;
+        }
+    }
+
+    private long prefix(long index) {
+        long delta = 0, weight = 0;
+        for (long i = index; i > 0; i -= i & -i) {
+            long[] node = nodes.get(i);
+            if (Objects.isNull(node)) continue;
+
+            delta += node[0];
+            weight += node[1];
+        }
+        return delta * index - weight;
+    }
+}
@@ -0,0 +1,58 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Treatment;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  Which dosage a treatment is taken in, by treatment id and by drug id then
+  treatment id. Treatments name their dosage; a dosage may also name its
+  treatment before the treatment is seen, which only the first index knows.
+*/
+final class DosageIndex {
+    private final Map<String, String> byTreatment = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> byDrugAndTreatment = new ConcurrentHashMap<>();
+
+    void dosageSaved(Dosage dosage) {
+        if (Objects.isNull(dosage.getTreatmentId())) return;
+
+        byTreatment.putIfAbsent(dosage.getTreatmentId(), dosage.getId());
+    }
+
+    void treatmentSaved(Treatment treatment) {
+        if (Objects.isNull(treatment.getId()) || Objects.isNull(treatment.getDosage())) return;
+        if (Objects.isNull(treatment.getDosage().getId())) return;
+
+        String dosageId = treatment.getDosage().getId();
+        byTreatment.put(treatment.getId(), dosageId);
+
+        if (Objects.isNull(treatment.getDrug())) return;
+        byDrugAndTreatment
+                .computeIfAbsent(treatment.getDrug().getId(), drugId -> new ConcurrentHashMap<>())
+                .put(treatment.getId(), dosageId);
+    }
+
+    // without a drug id any treatment matches; with one, only a treatment of that drug does
+    String dosageIdOf(String drugId, String treatmentId) {
+        if (Objects.isNull(treatmentId)) return null;
+        if (Objects.isNull(drugId)) return byTreatment.get(treatmentId);
+
+        return ofDrug(drugId).get(treatmentId);
+    }
+
+    // distinct dosage ids of the drug's treatments
+    Set<String> dosageIdsOf(String drugId) {
+        return new HashSet<>(ofDrug(drugId).values());
+    }
+
+    private Map<String, String> ofDrug(String drugId) {
+        Map<String, String> treatments = Objects.isNull(drugId) ? null : byDrugAndTreatment.get(drugId);
+        return Objects.isNull(treatments) ? Collections.emptyMap() : treatments;
+    }
+}
@@ -0,0 +1,238 @@
+package gateways;
+
+import entities.Entity;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/*
+  Bounded LRU cache of entities by id, split into independently locked
+  segments. When asked to, an id that the backing store does not know is
+  remembered too (negative caching), so repeated lookups of a missing id
+  stay cheap; give such a cache a time to live if other nodes may save
+  the id later. Entities are cached frozen, as the gateways hand them out,
+  so every hit shares one instance that callers cannot change.
+
+  A load that an invalidate() overtakes is returned but not cached: every
+  segment counts its invalidations, and a loaded entity is only put when
+  the count has not moved since before the load.
+*/
+public class EntityCache<T extends Entity> {
+    private static final int SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final List<Segment<T>> segments;
+    private final long timeToLiveNanos;
+    private final boolean cachesMissing;
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EntityCache(int maximumSize) {
+        this(maximumSize, Duration.ZERO, false);
+    }
+
+    // zero timeToLive keeps entries until they are evicted or invalidated
+    public EntityCache(int maximumSize, Duration timeToLive, boolean cachesMissing) {
+        this(maximumSize, timeToLive, cachesMissing, System::nanoTime);
+    }
+
+    EntityCache(int maximumSize, Duration timeToLive, boolean cachesMissing, LongSupplier ticker) {
+        if (maximumSize < 1) throw new IllegalArgumentException("Cache must hold at least one entry");
+
+        // small caches keep one segment, and so exact LRU order
+        int segmentCount = Math.max(1, Math.min(SEGMENTS, maximumSize / MIN_SEGMENT_SIZE));
+        this.segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments.add(new Segment<>(capacity, evictions));
+        }
+
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.cachesMissing = cachesMissing;
+        this.ticker = ticker;
+    }
+
+    public T getOrLoad(String id, Function<String, T> loader) {
+        long invalidations = invalidationsOf(segmentFor(id));
+        Lookup<T> lookup = get(id);
+        if (Objects.nonNull(lookup)) return lookup.entity();
+
+        T entity = freeze(loader.apply(id));
+        put(id, entity, invalidations);
+        return entity;
+    }
+
+    // cached entities are served from the cache, the rest are loaded with one call
+    public List<T> getAllOrLoad(Collection<String> ids, Function<Collection<String>, List<T>> loader) {
+        List<T> result = new ArrayList<>();
+        Map<String, Long> missed = new LinkedHashMap<>();
+
+        for (String id : ids) {
+            long invalidations = invalidationsOf(segmentFor(id));
+            Lookup<T> lookup = get(id);
+            if (Objects.isNull(lookup)) {
+                missed.put(id, invalidations);
+            } else if (Objects.nonNull(lookup.entity())) {
+                result.add(lookup.entity());
+            }
+        }
+        if (missed.isEmpty()) return result;
+
+        for (T loaded : loader.apply(missed.keySet())) {
+            T entity = freeze(loaded);
+            Long invalidations = missed.remove(entity.getId());
+            if (Objects.nonNull(invalidations)) put(entity.getId(), entity, invalidations);
+            result.add(entity);
+        }
+        missed.forEach((id, invalidations) -> put(id, null, invalidations));
+
+        return result;
+    }
+
+    // null when the id is not cached; a cached missing id yields a lookup without an entity
+    private Lookup<T> get(String id) {
+        Segment<T> segment = segmentFor(id);
+        Cached<T> cached;
+        synchronized (segment) {
+            cached = segment.get(id);
+            if (Objects.nonNull(cached) && cached.isExpired(ticker.getAsLong())) {
+                segment.remove(id);
+                cached = null;
+            }
+        }
+
+        if (Objects.isNull(cached)) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return Objects.isNull(cached.entity) ? Lookup.missing() : new Lookup<>(cached.entity);
+    }
+
+    // skipped when the segment was invalidated since the count was read, as the entity may be stale
+    private void put(String id, T entity, long invalidations) {
+        if (Objects.isNull(entity) && !cachesMissing) return;
+
+        long expiresAt = timeToLiveNanos == 0 ? Long.MAX_VALUE : ticker.getAsLong() + timeToLiveNanos;
+        Cached<T> cached = new Cached<>(entity, expiresAt);
+
+        Segment<T> segment = segmentFor(id);
+        synchronized (segment) {
+            if (segment.invalidations == invalidations) segment.put(id, cached);
+        }
+    }
+
+    private long invalidationsOf(Segment<T> segment) {
+        synchronized (segment) {
+            return segment.invalidations;
+        }
+    }
+
+    public void invalidate(String id) {
+        Segment<T> segment = segmentFor(id);
+        synchronized (segment) {
+            segment.invalidations++;
+            segment.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<T> segment : segments) {
+            synchronized (segment) {
+                segment.invalidations++;
+                segment.clear();
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment<T> segmentFor(String id) {
+        int hash = id.hashCode();
+        return segments.get(Math.floorMod(hash ^ (hash >>> 16), segments.size()));
+    }
+
+    // the entity itself when the backing gateway handed it out frozen
+    @SuppressWarnings("unchecked")
+    private T freeze(T entity) {
+        return Objects.isNull(entity) ? null : (T) entity.frozenCopy();
+    }
+
+    private static final class Lookup<T> {
+        private static final Lookup<?> MISSING = new Lookup<>(null);
+
+        private final T entity;
+
+        private Lookup(T entity) {
+            this.entity = entity;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Lookup<T> missing() {
+            return (Lookup<T>) MISSING;
+        }
+
+        private T entity() {
+            return entity;
+        }
+    }
+
+    private static final class Cached<T> {
+        private final T entity;
+        private final long expiresAt;
+
+        private Cached(T entity, long expiresAt) {
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0 && expiresAt != Long.MAX_VALUE;
+        }
+    }
+
+    // guarded by itself
+    private static final class Segment<T> {
+        private final Map<String, Cached<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final LongAdder evictions;
+        private long invalidations;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        private Cached<T> get(String id) {
+            return entries.get(id);
+        }
+
+        // the least recently used entry goes first when the segment is full
+        private void put(String id, Cached<T> cached) {
+            entries.put(id, cached);
+            if (entries.size() <= capacity) return;
+
+            Iterator<Cached<T>> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+
+        private void remove(String id) {
+            entries.remove(id);
+        }
+
+        private void clear() {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package gateways;
+
+import entities.Entity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  Hands out dense int keys for entity ids, so indexes can compare and hash
+  drugs or dosages as primitives. A frozen copy of the first entity
+  registered under an id is kept to turn a key back into an entity;
+  entities are equal by id, so that is the same one for every treatment
+  that refers to it.
+*/
+final class EntityKeys<T extends Entity> {
+    static final int NONE = -1;
+
+    private final Map<String, Integer> keys = new ConcurrentHashMap<>();
+    private volatile Entity[] entities = new Entity[16];
+    private int size;
+
+    int keyOf(String id) {
+        if (Objects.isNull(id)) return NONE;
+
+        Integer key = keys.get(id);
+        return Objects.isNull(key) ? NONE : key;
+    }
+
+    int register(T entity) {
+        if (Objects.isNull(entity) || Objects.isNull(entity.getId())) return NONE;
+
+        int key = keyOf(entity.getId());
+        if (key != NONE) return key;
+
+        synchronized (this) {
+            key = keyOf(entity.getId());
+            if (key != NONE) return key;
+
+            if (size == entities.length) entities = Arrays.copyOf(entities, size * 2);
+            entities[size] = entity.frozenCopy();
+            // publishing the key makes the entity above visible to readers of the key
+            keys.put(entity.getId(), size);
+            return size++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T entity(int key) {
+        return key == NONE ? null : (T) entities[key];
+    }
+
+    int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,51 @@
+package gateways;
+
+import entities.Dosage;
+import usecases.DosageGateway;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class FileDosageGateway extends FileEntityGateway<Dosage> implements DosageGateway {
+    private final DosageIndex index;
+
+    FileDosageGateway(FileStore store, DosageIndex index, Flyweights flyweights) {
+        super(store, LogRecords::dosage, flyweights::dosage);
+        this.index = index;
+    }
+
+    @Override
+    public Dosage save(Dosage dosage) {
+        Dosage saved = super.save(dosage);
+        index.dosageSaved(saved);
+        return saved;
+    }
+
+    @Override
+    public Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId) {
+        String dosageId = index.dosageIdOf(drugId, treatmentId);
+        return Objects.isNull(dosageId) ? null : findById(dosageId);
+    }
+
+    @Override
+    public Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds) {
+        Map<String, List<Dosage>> dosages = new LinkedHashMap<>();
+        for (String drugId : drugIds) dosages.put(drugId, findByIds(index.dosageIdsOf(drugId)));
+        return dosages;
+    }
+
+    @Override
+    void restore(Dosage dosage) {
+        super.restore(dosage);
+        index.dosageSaved(dosage);
+    }
+
+    @Override
+    void restoreAll(List<Dosage> restored) {
+        super.restoreAll(restored);
+        restored.forEach(index::dosageSaved);
+    }
+}
@@ -0,0 +1,25 @@
+package gateways;
+
+import entities.Drug;
+import usecases.DrugGateway;
+
+import java.util.List;
+
+public class FileDrugGateway extends FileEntityGateway<Drug> implements DrugGateway {
+    private final FileTreatmentGateway treatmentGateway;
+
+    FileDrugGateway(FileStore store, FileTreatmentGateway treatmentGateway) {
+        super(store, LogRecords::drug);
+        this.treatmentGateway = treatmentGateway;
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs() {
+        return findPrescribedDrugs(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        return treatmentGateway.findPrescribedDrugs(afterDrugId, limit);
+    }
+}
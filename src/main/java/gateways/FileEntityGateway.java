@@ -0,0 +1,84 @@
+package gateways;
+
+import entities.Entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/*
+  Entities of one kind kept in memory and written through to the store's log.
+  Reads hand out the stored versions themselves: they are frozen, so callers
+  cannot change them and nothing is copied on the way out.
+*/
+abstract class FileEntityGateway<T extends Entity> {
+    private final FileStore store;
+    private final Function<T, byte[]> encoder;
+    private final MvccStore<T> entities;
+
+    FileEntityGateway(FileStore store, Function<T, byte[]> encoder) {
+        this.store = store;
+        this.encoder = encoder;
+        this.entities = new MvccStore<>();
+    }
+
+    FileEntityGateway(FileStore store, Function<T, byte[]> encoder, UnaryOperator<T> freezer) {
+        this.store = store;
+        this.encoder = encoder;
+        this.entities = new MvccStore<>(freezer);
+    }
+
+    // logged before it is stored, so readers never see what the log refused, nor a treatment before its drug
+    public T save(T entity) {
+        return store.publishing(() -> {
+            String id = entity.getId();
+            entity.setId(IdGenerator.shared().nextId());
+            try {
+                store.write(encoder.apply(entity));
+            } catch (RuntimeException e) {
+                entity.setId(id);
+                throw e;
+            }
+
+            entities.put(entity);
+            return entity;
+        });
+    }
+
+    public T findById(String id) {
+        return entities.current().get(id);
+    }
+
+    // all from one version, however many saves happen meanwhile
+    public List<T> findByIds(Collection<String> ids) {
+        MvccStore.Version<T> version = entities.current();
+
+        List<T> found = new ArrayList<>();
+        for (String id : ids) {
+            T entity = version.get(id);
+            if (Objects.nonNull(entity)) found.add(entity);
+        }
+        return found;
+    }
+
+    public List<T> findAll() {
+        return entities.current().findAll();
+    }
+
+    void restore(T entity) {
+        entities.put(entity);
+    }
+
+    // a snapshot's entities are published as one version rather than one each
+    void restoreAll(List<T> restored) {
+        entities.putAll(restored);
+    }
+
+    // the stored entity itself, for the store to share with the treatments it replays
+    T stored(String id) {
+        return entities.current().get(id);
+    }
+}
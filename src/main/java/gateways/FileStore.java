@@ -0,0 +1,157 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Entity;
+import entities.Treatment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/*
+  Drugs, dosages and treatments kept in memory and made durable in one
+  append-only segment log in a directory. Opening a store loads the latest
+  checkpoint, if any, and replays only the log written after it.
+*/
+public class FileStore implements Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final FileTreatmentGateway treatments;
+    private final FileDrugGateway drugs;
+    private final FileDosageGateway dosages;
+    private final Path directory;
+    private final int segmentSize;
+    private final SegmentLog log;
+    // held shared by a save from appending its record until it is published, and alone by checkpoint
+    private final ReadWriteLock publishing = new ReentrantReadWriteLock();
+
+    private FileStore(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        DosageIndex dosageIndex = new DosageIndex();
+        Flyweights flyweights = new Flyweights();
+        this.treatments = new FileTreatmentGateway(this, dosageIndex, flyweights);
+        this.drugs = new FileDrugGateway(this, treatments);
+        this.dosages = new FileDosageGateway(this, dosageIndex, flyweights);
+
+        Files.createDirectories(directory);
+        Snapshot snapshot = Snapshot.read(directory, segmentSize);
+        if (Objects.nonNull(snapshot)) restore(snapshot);
+
+        long from = Objects.isNull(snapshot) ? 0 : snapshot.getPosition();
+        this.log = SegmentLog.open(directory, segmentSize, from, LogRecords::decode, this::replay);
+    }
+
+    public static FileStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static FileStore open(Path directory, int segmentSize) throws IOException {
+        return new FileStore(directory, segmentSize);
+    }
+
+    public FileTreatmentGateway treatments() {
+        return treatments;
+    }
+
+    public FileDrugGateway drugs() {
+        return drugs;
+    }
+
+    public FileDosageGateway dosages() {
+        return dosages;
+    }
+
+    /*
+      Writes a snapshot of everything saved so far. Saves go on meanwhile: the
+      snapshot covers the log up to the position taken first and may hold
+      later saves too, which replaying skips as already known.
+    */
+    public synchronized void checkpoint() throws IOException {
+        long position;
+        // every record up to the position is published once no save is between appending and publishing
+        publishing.writeLock().lock();
+        try {
+            position = log.written();
+        } finally {
+            publishing.writeLock().unlock();
+        }
+        // the snapshot must never cover log records that a crash could still lose
+        log.awaitDurable(position);
+
+        // treatments first: the drugs and dosages they refer to were saved before them
+        List<Treatment> savedTreatments = treatments.findAllInIndexOrder();
+        List<Dosage> savedDosages = dosages.findAll();
+        List<Drug> savedDrugs = drugs.findAll();
+
+        new Snapshot(position, savedDrugs, savedDosages, savedTreatments).write(directory, segmentSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    <R> R publishing(Supplier<R> save) {
+        publishing.readLock().lock();
+        try {
+            return save.get();
+        } finally {
+            publishing.readLock().unlock();
+        }
+    }
+
+    void write(byte[] record) {
+        awaitDurable(append(record));
+    }
+
+    long append(byte[] record) {
+        return log.append(record);
+    }
+
+    void awaitDurable(long position) {
+        log.awaitDurable(position);
+    }
+
+    int segmentCount() {
+        return log.segmentCount();
+    }
+
+    private void restore(Snapshot snapshot) {
+        drugs.restoreAll(snapshot.getDrugs());
+        dosages.restoreAll(snapshot.getDosages());
+        snapshot.getTreatments().forEach(this::resolve);
+        treatments.restoreSorted(snapshot.getTreatments());
+    }
+
+    private void replay(Entity entity) {
+        if (entity instanceof Drug) {
+            drugs.restore((Drug) entity);
+        } else if (entity instanceof Dosage) {
+            dosages.restore((Dosage) entity);
+        } else if (entity instanceof Treatment) {
+            treatments.restore(resolve((Treatment) entity));
+        }
+    }
+
+    private Treatment resolve(Treatment treatment) {
+        treatment.setDrug(resolve(drugs, treatment.getDrug()));
+        treatment.setDosage(resolve(dosages, treatment.getDosage()));
+        return treatment;
+    }
+
+    // a treatment may refer to an entity that was saved elsewhere; then it keeps the bare id
+    private static <T extends Entity> T resolve(FileEntityGateway<T> gateway, T reference) {
+        if (Objects.isNull(reference)) return null;
+
+        T stored = gateway.stored(reference.getId());
+        return Objects.isNull(stored) ? reference : stored;
+    }
+}
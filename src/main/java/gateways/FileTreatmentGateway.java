@@ -0,0 +1,105 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import usecases.DemandGateway;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+  Overlap checks and reads are served by a PartitionedTreatmentGateway. An
+  accepted treatment is appended to the store's log before the index takes
+  it, so a treatment the log refused is never read, and it is logged after
+  the drug and dosage it refers to. Saves return once the log is forced.
+*/
+public class FileTreatmentGateway implements TreatmentGateway, DemandGateway {
+    private final FileStore store;
+    private final PartitionedTreatmentGateway index;
+    private final DosageIndex dosageIndex;
+
+    FileTreatmentGateway(FileStore store, DosageIndex dosageIndex, Flyweights flyweights) {
+        this.store = store;
+        this.index = new PartitionedTreatmentGateway(PartitionedTreatmentGateway.DEFAULT_PARTITIONS, flyweights);
+        this.dosageIndex = dosageIndex;
+    }
+
+    @Override
+    public Treatment save(Treatment treatment) {
+        store.publishing(() -> index.save(treatment, this::write));
+        dosageIndex.treatmentSaved(treatment);
+        return treatment;
+    }
+
+    @Override
+    public boolean doesTreatmentExist(Treatment treatment) {
+        return index.doesTreatmentExist(treatment);
+    }
+
+    @Override
+    public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        if (!store.publishing(() -> index.saveIfNoOverlap(treatment, afterCheck, this::write))) return false;
+
+        dosageIndex.treatmentSaved(treatment);
+        return true;
+    }
+
+    /*
+      One force covers the whole batch, so its treatments are appended as they
+      are taken and may be read before the force returns; a treatment the log
+      refuses is still never taken.
+    */
+    @Override
+    public List<Treatment> saveAll(List<Treatment> treatments) {
+        AtomicLong position = new AtomicLong();
+        List<Treatment> saved = store.publishing(() -> index.saveAll(treatments,
+                treatment -> position.accumulateAndGet(store.append(LogRecords.treatment(treatment)), Math::max)));
+        store.awaitDurable(position.get());
+
+        saved.forEach(dosageIndex::treatmentSaved);
+        return saved;
+    }
+
+    @Override
+    public long findDemand(String drugId, LocalDate first, LocalDate last) {
+        return index.findDemand(drugId, first, last);
+    }
+
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        return index.findTreatments(query);
+    }
+
+    public List<Treatment> findAll() {
+        return index.findAll();
+    }
+
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        return index.findPrescribedDrugs(afterDrugId, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    List<Treatment> findAllInIndexOrder() {
+        return index.findAllInIndexOrder();
+    }
+
+    private void write(Treatment treatment) {
+        store.write(LogRecords.treatment(treatment));
+    }
+
+    void restore(Treatment treatment) {
+        index.restore(treatment);
+        dosageIndex.treatmentSaved(treatment);
+    }
+
+    void restoreSorted(List<Treatment> sorted) {
+        index.restoreSorted(sorted);
+        sorted.forEach(dosageIndex::treatmentSaved);
+    }
+}
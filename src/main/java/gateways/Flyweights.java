@@ -0,0 +1,63 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.TreatmentPeriod;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+  Canonical frozen instances of the values stored treatments are made of.
+  There are few distinct periods and doses however many treatments refer to
+  them, so each is kept once and shared; being frozen, a shared instance
+  cannot be changed through one treatment under the others. Like the
+  EntityKeys that share drugs, they belong to a store and go with it: a
+  FileStore hands one to all its gateways, a gateway on its own keeps one.
+*/
+final class Flyweights {
+    private final Map<TreatmentPeriod, TreatmentPeriod> periods = new ConcurrentHashMap<>();
+    private final Map<List<Object>, Dose> doses = new ConcurrentHashMap<>();
+
+    TreatmentPeriod period(TreatmentPeriod period) {
+        if (Objects.isNull(period)) return null;
+
+        TreatmentPeriod canonical = periods.get(period);
+        return Objects.nonNull(canonical) ? canonical : periods.computeIfAbsent(period, TreatmentPeriod::frozenCopy);
+    }
+
+    // doses are told apart by all they hold; they are entities, but ones that are never saved alone
+    Dose dose(Dose dose) {
+        if (Objects.isNull(dose)) return null;
+
+        return doses.computeIfAbsent(Arrays.asList(dose.getId(), dose.getQuantity(), dose.getForm()),
+                key -> (Dose) dose.frozenCopy());
+    }
+
+    // a frozen dosage holding the canonical dose; one that is already is returned as it is
+    Dosage dosage(Dosage dosage) {
+        if (Objects.isNull(dosage)) return null;
+
+        Dose dose = dose(dosage.getDose());
+        if (dosage.isFrozen() && dosage.getDose() == dose) return dosage;
+
+        try {
+            Dosage copy = (Dosage) dosage.clone();
+            copy.setDose(dose);
+            return (Dosage) copy.frozenCopy();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int periodCount() {
+        return periods.size();
+    }
+
+    int doseCount() {
+        return doses.size();
+    }
+}
@@ -0,0 +1,111 @@
+package gateways;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*
+  Entity ids as 64-bit numbers that grow with time: 41 bits of milliseconds
+  since EPOCH, 10 bits of node and 12 bits of sequence within the
+  millisecond. Nodes that write to different stores get different node
+  numbers and never hand out the same id. Ids from one generator always
+  increase; a node that runs out of sequence within a millisecond, or whose
+  clock steps back, goes on from the last id it issued.
+
+  The string form is 13 base-32 digits, fixed width and in an alphabet
+  ordered like the digits themselves, so strings sort as their numbers do.
+*/
+public final class IdGenerator {
+    public static final long NO_ID = 0;
+    public static final int MAX_NODE = (1 << 10) - 1;
+
+    static final long EPOCH = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_SHIFT = 12;
+    private static final int TIME_SHIFT = 22;
+    private static final long SEQUENCE_MASK = (1L << NODE_SHIFT) - 1;
+
+    private static final char[] DIGITS = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final int LENGTH = 13;
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) VALUES[DIGITS[i]] = (byte) i;
+    }
+
+    // the node is taken from the homeop.node system property
+    private static final IdGenerator SHARED = new IdGenerator(Integer.getInteger("homeop.node", 0));
+
+    private final long node;
+    private final LongSupplier clock;
+    private final AtomicLong last = new AtomicLong();
+
+    public IdGenerator(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    IdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) throw new IllegalArgumentException(String.format("Node must be within 0 and %d", MAX_NODE));
+
+        this.node = (long) node << NODE_SHIFT;
+        this.clock = clock;
+    }
+
+    public static IdGenerator shared() {
+        return SHARED;
+    }
+
+    public long next() {
+        long now = (clock.getAsLong() - EPOCH) << TIME_SHIFT | node;
+        while (true) {
+            long previous = last.get();
+            long next = now > previous ? now : following(previous);
+            if (last.compareAndSet(previous, next)) return next;
+        }
+    }
+
+    public String nextId() {
+        return format(next());
+    }
+
+    public static String format(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--, id >>>= 5) chars[i] = DIGITS[(int) (id & 31)];
+        return new String(chars);
+    }
+
+    // NO_ID for strings that are not ids from a generator
+    public static long parse(String id) {
+        if (Objects.isNull(id) || id.length() != LENGTH) return NO_ID;
+
+        // the first digit holds the top four bits and ids never set the sign among them
+        char first = id.charAt(0);
+        if (first >= VALUES.length || VALUES[first] < 0 || VALUES[first] > 7) return NO_ID;
+
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            int digit = c < VALUES.length ? VALUES[c] : -1;
+            if (digit < 0) return NO_ID;
+            value = value << 5 | digit;
+        }
+        return value;
+    }
+
+    static long timeOf(long id) {
+        return (id >>> TIME_SHIFT) + EPOCH;
+    }
+
+    static int nodeOf(long id) {
+        return (int) (id >>> NODE_SHIFT) & MAX_NODE;
+    }
+
+    // the next sequence in the same millisecond, or the first of the next one when it ran out
+    private long following(long previous) {
+        if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) return previous + 1;
+        return ((previous >>> TIME_SHIFT) + 1) << TIME_SHIFT | node;
+    }
+}
@@ -0,0 +1,496 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import usecases.DemandGateway;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/*
+  Treatments overlap only when they are of the same drug for the same
+  patient, so each patient's drug has its own interval tree. Locks are
+  striped by drug alone: every tree of a drug is guarded by its stripe.
+  Treatments by id are sharded as many ways, each shard its own monitor,
+  by a hash of the id rather than by drug, so saves of different drugs
+  never wait on one lock.
+*/
+public class IndexedTreatmentGateway implements TreatmentGateway, DemandGateway {
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int NO_PATIENT = 0;
+    private static final Consumer<Treatment> NOTHING_BEFORE_STORE = treatment -> {};
+
+    private final EntityKeys<Drug> drugKeys = new EntityKeys<>();
+    private final Flyweights flyweights;
+    private final Map<String, Integer> patientKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger lastPatientKey = new AtomicInteger(NO_PATIENT);
+    private final Shard[] shards;
+    private final Map<Long, IntervalTree<CompactTreatment>> treatmentsByOwner = new ConcurrentHashMap<>();
+    private final Map<Integer, List<IntervalTree<CompactTreatment>>> treesByDrug = new ConcurrentHashMap<>();
+    private final PrescribedDrugs prescribedDrugs = new PrescribedDrugs();
+    private final Map<Integer, DemandTree> demandByDrug = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    public IndexedTreatmentGateway() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public IndexedTreatmentGateway(int stripes) {
+        this(stripes, new Flyweights());
+    }
+
+    IndexedTreatmentGateway(int stripes, Flyweights flyweights) {
+        if (stripes < 1) throw new IllegalArgumentException("At least one lock stripe is required");
+
+        this.flyweights = flyweights;
+
+        this.stripes = new ReentrantLock[PowersOfTwo.atLeast(stripes)];
+        for (int i = 0; i < this.stripes.length; i++) this.stripes[i] = new ReentrantLock();
+
+        this.shards = new Shard[this.stripes.length];
+        for (int i = 0; i < shards.length; i++) shards[i] = new Shard();
+    }
+
+    @Override
+    public Treatment save(Treatment treatment) {
+        return save(treatment, NOTHING_BEFORE_STORE);
+    }
+
+    /*
+      The save methods taking beforeStore hand it each treatment once it has
+      its id and before it is stored, under the treatment's stripe lock. When
+      beforeStore throws, the treatment keeps its old id and is not stored, so
+      a store can write a treatment down before anyone can read it.
+    */
+    Treatment save(Treatment treatment, Consumer<Treatment> beforeStore) {
+        int drugKey = drugKeys.register(treatment.getDrug());
+        if (drugKey == EntityKeys.NONE) return persist(treatment, beforeStore);
+
+        ReentrantLock lock = lockFor(drugKey);
+        lock.lock();
+        try {
+            return persist(treatment, beforeStore);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean doesTreatmentExist(Treatment treatment) {
+        int drugKey = drugKeys.keyOf(drugId(treatment));
+        if (drugKey == EntityKeys.NONE) return false;
+
+        ReentrantLock lock = lockFor(drugKey);
+        lock.lock();
+        try {
+            return overlaps(drugKey, treatment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        return saveIfNoOverlap(treatment, afterCheck, NOTHING_BEFORE_STORE);
+    }
+
+    boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck, Consumer<Treatment> beforeStore) {
+        int drugKey = drugKeys.register(treatment.getDrug());
+        if (drugKey == EntityKeys.NONE) {
+            afterCheck.run();
+            persist(treatment, beforeStore);
+            return true;
+        }
+
+        ReentrantLock lock = lockFor(drugKey);
+        lock.lock();
+        try {
+            boolean overlapping = overlaps(drugKey, treatment);
+            afterCheck.run();
+            if (overlapping) return false;
+
+            persist(treatment, beforeStore);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Treatment> saveAll(List<Treatment> treatments) {
+        return saveAll(treatments, NOTHING_BEFORE_STORE);
+    }
+
+    List<Treatment> saveAll(List<Treatment> treatments, Consumer<Treatment> beforeStore) {
+        boolean[] saved = new boolean[treatments.size()];
+        int[] drugKeys = new int[treatments.size()];
+
+        Map<ReentrantLock, List<Integer>> byStripe = new LinkedHashMap<>();
+        for (int i = 0; i < treatments.size(); i++) {
+            drugKeys[i] = this.drugKeys.register(treatments.get(i).getDrug());
+            if (drugKeys[i] == EntityKeys.NONE) {
+                persist(treatments.get(i), beforeStore);
+                saved[i] = true;
+            } else {
+                byStripe.computeIfAbsent(lockFor(drugKeys[i]), lock -> new ArrayList<>()).add(i);
+            }
+        }
+
+        byStripe.forEach((lock, positions) -> {
+            lock.lock();
+            try {
+                for (int i : positions) {
+                    Treatment treatment = treatments.get(i);
+                    if (overlaps(drugKeys[i], treatment)) continue;
+
+                    persist(treatment, beforeStore);
+                    saved[i] = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        List<Treatment> result = new ArrayList<>();
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i]) result.add(treatments.get(i));
+        }
+        return result;
+    }
+
+    // stores a treatment that already has an id, as read back from a log; a known id is skipped
+    void restore(Treatment treatment) {
+        if (isStored(treatment.getId())) return;
+
+        int drugKey = drugKeys.register(treatment.getDrug());
+        if (drugKey == EntityKeys.NONE) {
+            store(treatment);
+            return;
+        }
+
+        ReentrantLock lock = lockFor(drugKey);
+        lock.lock();
+        try {
+            store(treatment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // treatments ordered by drug, patient and start, the order restoreSorted() takes
+    List<Treatment> findAllInIndexOrder() {
+        return storedTreatments().stream()
+                .sorted(Comparator.comparingInt(CompactTreatment::getDrugKey)
+                        .thenComparing(CompactTreatment::getPatientId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparingInt(CompactTreatment::getStartDay))
+                .map(compact -> compact.toTreatment(drugKeys, flyweights))
+                .collect(Collectors.toList());
+    }
+
+    /*
+      Fills an empty gateway from treatments in findAllInIndexOrder() order,
+      building every interval tree in one pass instead of by inserts.
+    */
+    void restoreSorted(List<Treatment> sorted) {
+        int from = 0;
+        while (from < sorted.size()) {
+            int drugKey = drugKeys.register(sorted.get(from).getDrug());
+            String patientId = sorted.get(from).getPatientId();
+
+            List<CompactTreatment> drugTreatments = new ArrayList<>();
+            int to = from;
+            while (to < sorted.size() && drugKeys.register(sorted.get(to).getDrug()) == drugKey &&
+                    Objects.equals(sorted.get(to).getPatientId(), patientId)) {
+                CompactTreatment compact = CompactTreatment.of(sorted.get(to++), drugKeys, flyweights);
+                keep(compact);
+                drugTreatments.add(compact);
+            }
+
+            if (drugKey != EntityKeys.NONE) {
+                IntervalTree<CompactTreatment> tree = IntervalTree.ofSorted(
+                        drugTreatments, CompactTreatment::getStartDay, CompactTreatment::getStopDay);
+                treatmentsByOwner.put(owner(registerPatient(patientId), drugKey), tree);
+                treesOf(drugKey).add(tree);
+                prescribedDrugs.added(drugKeys.entity(drugKey), drugTreatments.size());
+                drugTreatments.forEach(this::addDemand);
+            }
+            from = to;
+        }
+    }
+
+    /*
+      Only the treatments the plan gathers are compared with the query's days,
+      as days, and only those on the days are turned into Treatments.
+    */
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        int from = query.hasDays() ? CompactTreatment.toBoundDay(query.getFrom()) : Integer.MIN_VALUE;
+        int to = query.hasDays() ? CompactTreatment.toBoundDay(query.getTo()) : Integer.MAX_VALUE;
+
+        return query.select(candidates(query, from, to).stream()
+                .filter(treatment -> treatment.getStartDay() <= to && treatment.getStopDay() >= from)
+                .map(compact -> compact.toTreatment(drugKeys, flyweights)));
+    }
+
+    // the drug's trees skip to the days asked for; a drug with most of the treatments is scanned instead
+    QueryPlan plan(TreatmentQuery query) {
+        if (Objects.nonNull(query.getTreatmentId())) return QueryPlan.BY_ID;
+        if (Objects.nonNull(query.getDrugId()) && (query.hasDays() || countTreatmentsOf(query.getDrugId()) <= size() / 2))
+            return QueryPlan.BY_DRUG;
+        return QueryPlan.SCAN;
+    }
+
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        return prescribedDrugs.page(afterDrugId, limit);
+    }
+
+    @Override
+    public long findDemand(String drugId, LocalDate first, LocalDate last) {
+        int drugKey = drugKeys.keyOf(drugId);
+        DemandTree demand = drugKey == EntityKeys.NONE ? null : demandByDrug.get(drugKey);
+        if (Objects.isNull(demand)) return 0;
+
+        return demand.sum(CompactTreatment.toBoundDay(first), CompactTreatment.toBoundDay(last));
+    }
+
+    int countTreatmentsOf(String drugId) {
+        return prescribedDrugs.treatmentCount(drugId);
+    }
+
+    // in id order: each shard keeps its ids in order and the shards are merged
+    public List<Treatment> findAll() {
+        return storedTreatments().stream()
+                .map(compact -> compact.toTreatment(drugKeys, flyweights))
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return size;
+    }
+
+    private boolean overlaps(int drugKey, Treatment treatment) {
+        Integer patientKey = Objects.isNull(treatment.getPatientId())
+                ? Integer.valueOf(NO_PATIENT)
+                : patientKeys.get(treatment.getPatientId());
+        if (Objects.isNull(patientKey)) return false;
+
+        IntervalTree<CompactTreatment> drugTreatments = treatmentsByOwner.get(owner(patientKey, drugKey));
+        if (Objects.isNull(drugTreatments)) return false;
+
+        return drugTreatments.overlaps(
+                CompactTreatment.toDay(treatment.getStartsOn()), CompactTreatment.toDay(treatment.getStopsOn()));
+    }
+
+    // callers hold the stripe lock of the treatment's drug
+    private Treatment persist(Treatment treatment, Consumer<Treatment> beforeStore) {
+        String id = treatment.getId();
+        treatment.setId(IdGenerator.shared().nextId());
+        try {
+            beforeStore.accept(treatment);
+        } catch (RuntimeException e) {
+            treatment.setId(id);
+            throw e;
+        }
+        store(treatment);
+        return treatment;
+    }
+
+    private void store(Treatment treatment) {
+        CompactTreatment compact = CompactTreatment.of(treatment, drugKeys, flyweights);
+        keep(compact);
+        index(compact);
+    }
+
+    private void keep(CompactTreatment treatment) {
+        long key = IdGenerator.parse(treatment.getId());
+        Shard shard = shardOf(treatment.getId(), key);
+        synchronized (shard) {
+            if (key == IdGenerator.NO_ID) shard.byOtherId.put(treatment.getId(), treatment);
+            else shard.byId.put(key, treatment);
+        }
+    }
+
+    private List<CompactTreatment> candidates(TreatmentQuery query, int from, int to) {
+        List<CompactTreatment> found = new ArrayList<>();
+        switch (plan(query)) {
+            case BY_ID:
+                CompactTreatment stored = stored(query.getTreatmentId());
+                if (Objects.nonNull(stored)) found.add(stored);
+                break;
+            case BY_DRUG:
+                int drugKey = drugKeys.keyOf(query.getDrugId());
+                if (drugKey == EntityKeys.NONE) break;
+
+                ReentrantLock lock = lockFor(drugKey);
+                lock.lock();
+                try {
+                    for (IntervalTree<CompactTreatment> tree : treesOf(drugKey)) tree.forEachOverlap(from, to, found::add);
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            default:
+                found.addAll(storedTreatments());
+        }
+        return found;
+    }
+
+    private CompactTreatment stored(String id) {
+        if (Objects.isNull(id)) return null;
+
+        long key = IdGenerator.parse(id);
+        Shard shard = shardOf(id, key);
+        synchronized (shard) {
+            return key == IdGenerator.NO_ID ? shard.byOtherId.get(id) : shard.byId.get(key);
+        }
+    }
+
+    private boolean isStored(String id) {
+        return Objects.nonNull(stored(id));
+    }
+
+    // ids not from IdGenerator, as logs from before it hold, come first, ordered as strings
+    private List<CompactTreatment> storedTreatments() {
+        List<CompactTreatment> stored = new ArrayList<>();
+        List<List<CompactTreatment>> runs = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                stored.addAll(shard.byOtherId.values());
+                runs.add(shard.byId.values());
+            }
+        }
+        stored.sort(Comparator.comparing(CompactTreatment::getId));
+        mergeById(runs, stored);
+        return stored;
+    }
+
+    // every run is in id order already, so only the heads of the runs are compared
+    private static void mergeById(List<List<CompactTreatment>> runs, List<CompactTreatment> merged) {
+        PriorityQueue<Run> heads = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparingLong(Run::key));
+        for (List<CompactTreatment> run : runs) {
+            if (!run.isEmpty()) heads.add(new Run(run));
+        }
+        while (!heads.isEmpty()) {
+            Run head = heads.poll();
+            merged.add(head.treatment());
+            if (head.advance()) heads.add(head);
+        }
+    }
+
+    // ids from IdGenerator are time-ordered, so a hash of the whole id spreads neighbouring saves over the shards
+    private Shard shardOf(String id, long key) {
+        long mixed = key == IdGenerator.NO_ID ? id.hashCode() : key * 0x9E3779B97F4A7C15L;
+        return shards[(int) (mixed ^ mixed >>> 32) & (shards.length - 1)];
+    }
+
+    private void index(CompactTreatment treatment) {
+        if (treatment.getDrugKey() == EntityKeys.NONE) return;
+
+        treatmentsByOwner
+                .computeIfAbsent(owner(registerPatient(treatment.getPatientId()), treatment.getDrugKey()),
+                        key -> newTree(treatment.getDrugKey()))
+                .insert(treatment.getStartDay(), treatment.getStopDay(), treatment);
+
+        prescribedDrugs.added(drugKeys.entity(treatment.getDrugKey()));
+        addDemand(treatment);
+    }
+
+    // treatments without a dose or without dates add no demand
+    private void addDemand(CompactTreatment treatment) {
+        Dosage dosage = treatment.getDosage();
+        if (Objects.isNull(dosage) || Objects.isNull(dosage.getDose())) return;
+        if (treatment.getStartDay() == CompactTreatment.NO_DAY || treatment.getStopDay() == CompactTreatment.NO_DAY) return;
+
+        demandByDrug
+                .computeIfAbsent(treatment.getDrugKey(), key -> new DemandTree())
+                .add(treatment.getStartDay(), treatment.getStopDay(), dosage.totalDailyDose());
+    }
+
+    // every tree of the drug, whichever patient it is for; callers hold the drug's stripe lock
+    private IntervalTree<CompactTreatment> newTree(int drugKey) {
+        IntervalTree<CompactTreatment> tree = new IntervalTree<>();
+        treesOf(drugKey).add(tree);
+        return tree;
+    }
+
+    private List<IntervalTree<CompactTreatment>> treesOf(int drugKey) {
+        return treesByDrug.computeIfAbsent(drugKey, key -> new CopyOnWriteArrayList<>());
+    }
+
+    private int registerPatient(String patientId) {
+        if (Objects.isNull(patientId)) return NO_PATIENT;
+
+        return patientKeys.computeIfAbsent(patientId, id -> lastPatientKey.incrementAndGet());
+    }
+
+    private static long owner(int patientKey, int drugKey) {
+        return (long) patientKey << 32 | drugKey;
+    }
+
+    // drug keys are dense, so consecutive drugs land on consecutive stripes
+    private ReentrantLock lockFor(int drugKey) {
+        return stripes[drugKey & (stripes.length - 1)];
+    }
+
+    private String drugId(Treatment treatment) {
+        return Objects.isNull(treatment.getDrug()) ? null : treatment.getDrug().getId();
+    }
+
+    // treatments by id, as a number when it is one from IdGenerator; guarded by the shard itself
+    private static final class Shard {
+        private final LongMap<CompactTreatment> byId = new LongMap<>();
+        private final Map<String, CompactTreatment> byOtherId = new HashMap<>();
+
+        int size() {
+            return byId.size() + byOtherId.size();
+        }
+    }
+
+    private static final class Run {
+        private final List<CompactTreatment> treatments;
+        private int position;
+        private long key;
+
+        Run(List<CompactTreatment> treatments) {
+            this.treatments = treatments;
+            this.key = IdGenerator.parse(treatments.get(0).getId());
+        }
+
+        long key() {
+            return key;
+        }
+
+        CompactTreatment treatment() {
+            return treatments.get(position);
+        }
+
+        boolean advance() {
+            if (++position == treatments.size()) return false;
+
+            key = IdGenerator.parse(treatments.get(position).getId());
+            return true;
+        }
+    }
+}
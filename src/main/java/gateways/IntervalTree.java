@@ -0,0 +1,150 @@
+package gateways;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/*
+  AVL tree of closed [start, stop] epoch-day intervals ordered by start.
+  Every node keeps the latest stop of its subtree, so a search can skip
+  whole subtrees that end before the queried interval starts.
+*/
+class IntervalTree<V> {
+    private Node<V> root;
+    private int size;
+
+    // a balanced tree built in one pass from values ordered by start
+    static <V> IntervalTree<V> ofSorted(List<V> values, ToIntFunction<V> start, ToIntFunction<V> stop) {
+        IntervalTree<V> tree = new IntervalTree<>();
+        tree.root = build(values, start, stop, 0, values.size() - 1);
+        tree.size = values.size();
+        return tree;
+    }
+
+    void insert(int start, int stop, V value) {
+        root = insert(root, new Node<>(start, stop, value));
+        size++;
+    }
+
+    boolean overlaps(int start, int stop) {
+        Node<V> node = root;
+        while (node != null) {
+            if (node.start > stop) {
+                node = node.left;
+                continue;
+            }
+            if (node.stop >= start) return true;
+            if (node.left != null && node.left.maxStop >= start) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    void forEachOverlap(int start, int stop, Consumer<V> action) {
+        forEachOverlap(root, start, stop, action);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void forEachOverlap(Node<V> node, int start, int stop, Consumer<V> action) {
+        if (node == null || node.maxStop < start) return;
+
+        forEachOverlap(node.left, start, stop, action);
+
+        if (node.start > stop) return;
+        if (node.stop >= start) action.accept(node.value);
+
+        forEachOverlap(node.right, start, stop, action);
+    }
+
+    private static <V> Node<V> build(List<V> values, ToIntFunction<V> start, ToIntFunction<V> stop, int from, int to) {
+        if (from > to) return null;
+
+        int middle = (from + to) >>> 1;
+        V value = values.get(middle);
+        Node<V> node = new Node<>(start.applyAsInt(value), stop.applyAsInt(value), value);
+        node.left = build(values, start, stop, from, middle - 1);
+        node.right = build(values, start, stop, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) return added;
+
+        if (added.start < node.start) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+
+        return balance(node);
+    }
+
+    private static <V> Node<V> balance(Node<V> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <V> Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <V> Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxStop = Math.max(node.stop, Math.max(maxStop(node.left), maxStop(node.right)));
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int maxStop(Node<?> node) {
+        return node == null ? Integer.MIN_VALUE : node.maxStop;
+    }
+
+    private static class Node<V> {
+        private final int start;
+        private final int stop;
+        private final V value;
+        private int maxStop;
+        private int height = 1;
+        private Node<V> left, right;
+
+        private Node(int start, int stop, V value) {
+            this.start = start;
+            this.stop = stop;
+            this.value = value;
+            this.maxStop = stop;
+        }
+    }
+}
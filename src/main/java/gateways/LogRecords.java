@@ -0,0 +1,155 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import entities.Entity;
+import entities.Treatment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/*
+  Binary encoding of the entities kept in a FileStore log. A record starts
+  with its type; treatments refer to their drug and dosage by id, dates are
+  epoch days and the period unit is an ordinal. The patient of a treatment
+  comes last, so records written before treatments had one still decode.
+*/
+final class LogRecords {
+    private static final byte DRUG = 1;
+    private static final byte DOSAGE = 2;
+    private static final byte TREATMENT = 3;
+
+    private LogRecords() {}
+
+    static byte[] drug(Drug drug) {
+        return encode(DRUG, out -> {
+            writeString(out, drug.getId());
+            writeString(out, drug.getName());
+        });
+    }
+
+    static byte[] dosage(Dosage dosage) {
+        return encode(DOSAGE, out -> {
+            writeString(out, dosage.getId());
+            writeString(out, dosage.getTreatmentId());
+            out.writeInt(dosage.getDailyIntakeAmount());
+
+            Dose dose = dosage.getDose();
+            out.writeBoolean(Objects.nonNull(dose));
+            if (Objects.nonNull(dose)) {
+                writeString(out, dose.getId());
+                out.writeInt(dose.getQuantity());
+                writeString(out, dose.getForm());
+            }
+        });
+    }
+
+    static byte[] treatment(Treatment treatment) {
+        return encode(TREATMENT, out -> {
+            writeString(out, treatment.getId());
+            writeString(out, Objects.isNull(treatment.getDrug()) ? null : treatment.getDrug().getId());
+            writeString(out, Objects.isNull(treatment.getDosage()) ? null : treatment.getDosage().getId());
+            out.writeInt(CompactTreatment.toDay(treatment.getStartsOn()));
+            out.writeInt(CompactTreatment.toDay(treatment.getStopsOn()));
+            out.writeInt(Objects.isNull(treatment.getPeriod()) ? 0 : treatment.getPeriod().getAmount());
+            out.writeByte(CompactTreatment.toUnit(treatment.getPeriod()));
+            writeString(out, treatment.getPatientId());
+        });
+    }
+
+    /*
+      A decoded treatment carries a drug and a dosage that hold only their
+      ids; the store swaps them for the stored entities on replay.
+    */
+    static Entity decode(ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = in.readByte();
+            switch (type) {
+                case DRUG: return readDrug(in);
+                case DOSAGE: return readDosage(in);
+                case TREATMENT: return readTreatment(in);
+                default: throw new IllegalStateException(String.format("Unknown log record type %d", type));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Drug readDrug(DataInputStream in) throws IOException {
+        Drug drug = new Drug();
+        drug.setId(readString(in));
+        drug.setName(readString(in));
+        return drug;
+    }
+
+    private static Dosage readDosage(DataInputStream in) throws IOException {
+        Dosage dosage = new Dosage();
+        dosage.setId(readString(in));
+        dosage.setTreatmentId(readString(in));
+        dosage.setDailyIntakeAmount(in.readInt());
+
+        if (in.readBoolean()) {
+            Dose dose = new Dose();
+            dose.setId(readString(in));
+            dose.setQuantity(in.readInt());
+            dose.setForm(readString(in));
+            dosage.setDose(dose);
+        }
+        return dosage;
+    }
+
+    private static Treatment readTreatment(DataInputStream in) throws IOException {
+        Treatment treatment = new Treatment();
+        treatment.setId(readString(in));
+        treatment.setDrug(reference(new Drug(), readString(in)));
+        treatment.setDosage(reference(new Dosage(), readString(in)));
+        treatment.setStartsOn(CompactTreatment.toDate(in.readInt()));
+        treatment.setStopsOn(CompactTreatment.toDate(in.readInt()));
+        int amount = in.readInt();
+        treatment.setPeriod(CompactTreatment.toPeriod(amount, in.readByte()));
+        if (in.available() > 0) treatment.setPatientId(readString(in));
+        return treatment;
+    }
+
+    private static <T extends Entity> T reference(T entity, String id) {
+        if (Objects.isNull(id)) return null;
+
+        entity.setId(id);
+        return entity;
+    }
+
+    private static byte[] encode(byte type, Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(Objects.nonNull(value));
+        if (Objects.nonNull(value)) out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
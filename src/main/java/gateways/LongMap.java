@@ -0,0 +1,123 @@
+package gateways;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+  Map from primitive long keys, such as ids from IdGenerator, with open
+  addressing. Entries sit in two dense arrays in the order they were put and
+  a power-of-two table of positions, probed linearly, finds them by key, so
+  neither keys nor lookups are boxed or hashed as strings. Keys that arrive
+  in increasing order, as generated ids do, leave the entries in key order
+  and values() just copies them; otherwise it sorts a copy of the keys, so
+  listing values never moves entries.
+
+  Not thread-safe; entries are only ever added or replaced.
+*/
+public final class LongMap<V> {
+    private static final int FREE = 0;
+
+    private long[] keys;
+    private Object[] values;
+    private int[] slots;
+    private int size;
+    private boolean ordered = true;
+
+    public LongMap() {
+        this(16);
+    }
+
+    public LongMap(int capacity) {
+        int length = PowersOfTwo.atLeast(Math.max(capacity, 8));
+        keys = new long[length];
+        values = new Object[length];
+        slots = new int[length * 2];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int position = positionOf(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    public boolean containsKey(long key) {
+        return positionOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int slot = slotOf(key);
+        if (slots[slot] != FREE) {
+            int position = slots[slot] - 1;
+            V previous = (V) values[position];
+            values[position] = value;
+            return previous;
+        }
+
+        if (size == keys.length) {
+            grow();
+            slot = slotOf(key);
+        }
+        if (size > 0 && key < keys[size - 1]) ordered = false;
+
+        keys[size] = key;
+        values[size] = value;
+        slots[slot] = ++size;
+        return null;
+    }
+
+    // in key order
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> all = new ArrayList<>(size);
+        if (ordered) {
+            for (int i = 0; i < size; i++) all.add((V) values[i]);
+            return all;
+        }
+
+        long[] sorted = Arrays.copyOf(keys, size);
+        Arrays.sort(sorted);
+        for (long key : sorted) all.add((V) values[positionOf(key)]);
+        return all;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int positionOf(long key) {
+        int slot = slotOf(key);
+        return slots[slot] - 1;
+    }
+
+    // the slot holding the key, or the free slot where it would go
+    private int slotOf(long key) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != FREE && keys[slots[slot] - 1] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    // Fibonacci hashing spreads the low bits that sequential ids share with their neighbours
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ mixed >>> 32);
+    }
+
+    private void grow() {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+        reindex();
+    }
+
+    private void reindex() {
+        slots = new int[keys.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (slots[slot] != FREE) slot = (slot + 1) & mask;
+            slots[slot] = i + 1;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package gateways;
+
+import entities.Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/*
+  Entities by id under multi-version concurrency control. Every write
+  publishes a new immutable version: a persistent AVL tree that copies only
+  the path to the changed entity and shares the rest with the version before.
+  Readers take whichever version is current and keep it for as long as they
+  like, without locks and without copying, and get frozen entities they
+  cannot change. Writers are serialised among themselves.
+*/
+final class MvccStore<T extends Entity> {
+    private final UnaryOperator<T> freezer;
+    private volatile Version<T> current = new Version<>(0, null);
+
+    @SuppressWarnings("unchecked")
+    MvccStore() {
+        this(entity -> (T) entity.frozenCopy());
+    }
+
+    // the freezer makes the frozen version that is stored, and may share its parts with others
+    MvccStore(UnaryOperator<T> freezer) {
+        this.freezer = freezer;
+    }
+
+    // stores a frozen copy of the entity, which must have an id, and returns that copy
+    synchronized T put(T entity) {
+        T version = freeze(entity);
+        current = new Version<>(current.number + 1, Node.put(current.root, version));
+        return version;
+    }
+
+    // the whole batch becomes visible at once, as one version
+    synchronized void putAll(List<T> entities) {
+        Node<T> root = current.root;
+        for (T entity : entities) root = Node.put(root, freeze(entity));
+        current = new Version<>(current.number + 1, root);
+    }
+
+    Version<T> current() {
+        return current;
+    }
+
+    private T freeze(T entity) {
+        if (Objects.isNull(entity.getId())) throw new IllegalArgumentException("Only entities with an id are stored");
+        return freezer.apply(entity);
+    }
+
+    static final class Version<T extends Entity> {
+        private final long number;
+        private final Node<T> root;
+        private volatile List<T> all;
+
+        private Version(long number, Node<T> root) {
+            this.number = number;
+            this.root = root;
+        }
+
+        long getNumber() {
+            return number;
+        }
+
+        T get(String id) {
+            if (Objects.isNull(id)) return null;
+
+            long key = IdGenerator.parse(id);
+            Node<T> node = root;
+            while (Objects.nonNull(node)) {
+                int order = node.compareTo(key, id);
+                if (order == 0) return node.entity;
+                node = order < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+
+        // in id order; walked once per version and shared by every reader of it
+        List<T> findAll() {
+            List<T> found = all;
+            if (Objects.isNull(found)) {
+                List<T> walked = new ArrayList<>(size());
+                Node.walk(root, walked);
+                all = found = Collections.unmodifiableList(walked);
+            }
+            return found;
+        }
+
+        int size() {
+            return Node.size(root);
+        }
+    }
+
+    /*
+      Nodes are ordered by the id as a number when it is one from IdGenerator,
+      which is also the order of the strings. Ids set some other way sort
+      before those, among themselves as strings.
+    */
+    private static final class Node<T extends Entity> {
+        private final long key;
+        private final T entity;
+        private final Node<T> left;
+        private final Node<T> right;
+        private final int height;
+        private final int size;
+
+        private Node(long key, T entity, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.entity = entity;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        static <T extends Entity> Node<T> put(Node<T> node, T entity) {
+            return put(node, IdGenerator.parse(entity.getId()), entity);
+        }
+
+        private static <T extends Entity> Node<T> put(Node<T> node, long key, T entity) {
+            if (Objects.isNull(node)) return new Node<>(key, entity, null, null);
+
+            int order = node.compareTo(key, entity.getId());
+            if (order == 0) return new Node<>(key, entity, node.left, node.right);
+            if (order < 0) return balance(node, put(node.left, key, entity), node.right);
+            return balance(node, node.left, put(node.right, key, entity));
+        }
+
+        // how the given id orders against this node's
+        int compareTo(long otherKey, String otherId) {
+            if (otherKey != key) return Long.compare(otherKey, key);
+            return otherKey == IdGenerator.NO_ID ? otherId.compareTo(entity.getId()) : 0;
+        }
+
+        static <T extends Entity> void walk(Node<T> node, List<T> into) {
+            if (Objects.isNull(node)) return;
+
+            walk(node.left, into);
+            into.add(node.entity);
+            walk(node.right, into);
+        }
+
+        static int height(Node<?> node) {
+            return Objects.isNull(node) ? 0 : node.height;
+        }
+
+        static int size(Node<?> node) {
+            return Objects.isNull(node) ? 0 : node.size;
+        }
+
+        // a copy of the top node over the given children, rebalanced
+        private static <T extends Entity> Node<T> balance(Node<T> top, Node<T> left, Node<T> right) {
+            if (height(left) > height(right) + 1) {
+                if (height(left.left) < height(left.right)) left = rotateLeft(left, left.left, left.right);
+                return rotateRight(top, left, right);
+            }
+            if (height(right) > height(left) + 1) {
+                if (height(right.right) < height(right.left)) right = rotateRight(right, right.left, right.right);
+                return rotateLeft(top, left, right);
+            }
+            return new Node<>(top.key, top.entity, left, right);
+        }
+
+        private static <T extends Entity> Node<T> rotateRight(Node<T> top, Node<T> left, Node<T> right) {
+            return new Node<>(left.key, left.entity, left.left, new Node<>(top.key, top.entity, left.right, right));
+        }
+
+        private static <T extends Entity> Node<T> rotateLeft(Node<T> top, Node<T> left, Node<T> right) {
+            return new Node<>(right.key, right.entity, new Node<>(top.key, top.entity, left, right.left), right.right);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+  Keeps treatments as rows of off-heap columns, 25 bytes a row plus a 4-byte
+  link to the previous row of the same drug, so tens of millions of
+  treatments stay out of the garbage collector's way. Only distinct drugs,
+  dosages and patient ids are kept on the heap. Treatments only overlap
+  treatments of the same patient, as in IndexedTreatmentGateway. A
+  treatment's id is its row number; rows become Treatment objects only when
+  they are read.
+*/
+public class OffHeapTreatmentGateway implements TreatmentGateway {
+    private static final int NO_ROW = -1;
+    private static final int NO_PATIENT = 0;
+    private static final int UNKNOWN_PATIENT = -1;
+
+    private final EntityKeys<Drug> drugKeys = new EntityKeys<>();
+    private final EntityKeys<Dosage> dosageKeys = new EntityKeys<>();
+    private final Flyweights flyweights = new Flyweights();
+    // by patient key, NO_PATIENT standing for treatments of no patient in particular; guarded by the lock
+    private final List<String> patientIds = new ArrayList<>(Collections.singletonList(null));
+    private final Map<String, Integer> patientKeys = new HashMap<>();
+
+    private final Column drugColumn = Column.ofInts();
+    private final Column dosageColumn = Column.ofInts();
+    private final Column patientColumn = Column.ofInts();
+    private final Column startColumn = Column.ofInts();
+    private final Column stopColumn = Column.ofInts();
+    private final Column amountColumn = Column.ofInts();
+    private final Column unitColumn = Column.ofBytes();
+    private final Column previousOfDrugColumn = Column.ofInts();
+
+    // by drug key: the newest row, the head of the drug's chain of rows, and the span its rows cover
+    private int[] lastRowOfDrug = new int[0];
+    private int[] firstStartOfDrug = new int[0];
+    private int[] lastStopOfDrug = new int[0];
+    private int rows;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public Treatment save(Treatment treatment) {
+        lock.writeLock().lock();
+        try {
+            append(treatment);
+            return treatment;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean doesTreatmentExist(Treatment treatment) {
+        int drugKey = drugKeys.keyOf(drugId(treatment));
+        if (drugKey == EntityKeys.NONE) return false;
+
+        lock.readLock().lock();
+        try {
+            return overlaps(drugKey, treatment);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        lock.writeLock().lock();
+        try {
+            return appendIfNoOverlap(treatment, afterCheck);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Treatment> saveAll(List<Treatment> treatments) {
+        List<Treatment> saved = new ArrayList<>();
+
+        lock.writeLock().lock();
+        try {
+            for (Treatment treatment : treatments) {
+                if (appendIfNoOverlap(treatment, () -> {})) saved.add(treatment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    public Treatment findById(String id) {
+        int row = toRow(id);
+
+        lock.readLock().lock();
+        try {
+            return row == NO_ROW || row >= rows ? null : materialize(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // rows are compared by their day columns and only those on the query's days are materialized
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        int from = query.hasDays() ? CompactTreatment.toBoundDay(query.getFrom()) : Integer.MIN_VALUE;
+        int to = query.hasDays() ? CompactTreatment.toBoundDay(query.getTo()) : Integer.MAX_VALUE;
+
+        List<Treatment> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            switch (plan(query)) {
+                case BY_ID:
+                    int row = toRow(query.getTreatmentId());
+                    if (row != NO_ROW && row < rows && isTakenBetween(row, from, to)) found.add(materialize(row));
+                    break;
+                case BY_DRUG:
+                    int drugKey = drugKeys.keyOf(query.getDrugId());
+                    if (drugKey == EntityKeys.NONE || drugKey >= lastRowOfDrug.length) break;
+
+                    for (int r = lastRowOfDrug[drugKey]; r != NO_ROW; r = previousOfDrugColumn.get(r)) {
+                        if (isTakenBetween(r, from, to)) found.add(materialize(r));
+                    }
+                    break;
+                default:
+                    for (int r = 0; r < rows; r++) {
+                        if (isTakenBetween(r, from, to)) found.add(materialize(r));
+                    }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return query.select(found.stream());
+    }
+
+    // a drug's rows are chained, so walking them never costs more than a scan
+    QueryPlan plan(TreatmentQuery query) {
+        if (Objects.nonNull(query.getTreatmentId())) return QueryPlan.BY_ID;
+        return Objects.nonNull(query.getDrugId()) ? QueryPlan.BY_DRUG : QueryPlan.SCAN;
+    }
+
+    public List<Treatment> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Treatment> treatments = new ArrayList<>(rows);
+            for (int row = 0; row < rows; row++) treatments.add(materialize(row));
+            return treatments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // callers hold the write lock
+    private boolean appendIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        int drugKey = drugKeys.keyOf(drugId(treatment));
+        boolean overlapping = drugKey != EntityKeys.NONE && overlaps(drugKey, treatment);
+        afterCheck.run();
+        if (overlapping) return false;
+
+        append(treatment);
+        return true;
+    }
+
+    // callers hold the write lock
+    private void append(Treatment treatment) {
+        int row = rows;
+        int drugKey = drugKeys.register(treatment.getDrug());
+
+        drugColumn.set(row, drugKey);
+        dosageColumn.set(row, dosageKeys.register(treatment.getDosage()));
+        patientColumn.set(row, registerPatient(treatment.getPatientId()));
+        startColumn.set(row, CompactTreatment.toDay(treatment.getStartsOn()));
+        stopColumn.set(row, CompactTreatment.toDay(treatment.getStopsOn()));
+        amountColumn.set(row, Objects.isNull(treatment.getPeriod()) ? 0 : treatment.getPeriod().getAmount());
+        unitColumn.set(row, CompactTreatment.toUnit(treatment.getPeriod()));
+
+        if (drugKey != EntityKeys.NONE) {
+            if (drugKey >= lastRowOfDrug.length) growDrugs(Math.max(16, drugKey * 2));
+
+            previousOfDrugColumn.set(row, lastRowOfDrug[drugKey]);
+            lastRowOfDrug[drugKey] = row;
+            firstStartOfDrug[drugKey] = Math.min(firstStartOfDrug[drugKey], startColumn.get(row));
+            lastStopOfDrug[drugKey] = Math.max(lastStopOfDrug[drugKey], stopColumn.get(row));
+        } else {
+            previousOfDrugColumn.set(row, NO_ROW);
+        }
+
+        rows++;
+        treatment.setId(Integer.toString(row));
+    }
+
+    private void growDrugs(int length) {
+        int from = lastRowOfDrug.length;
+        lastRowOfDrug = Arrays.copyOf(lastRowOfDrug, length);
+        firstStartOfDrug = Arrays.copyOf(firstStartOfDrug, length);
+        lastStopOfDrug = Arrays.copyOf(lastStopOfDrug, length);
+
+        Arrays.fill(lastRowOfDrug, from, length, NO_ROW);
+        Arrays.fill(firstStartOfDrug, from, length, Integer.MAX_VALUE);
+        Arrays.fill(lastStopOfDrug, from, length, Integer.MIN_VALUE);
+    }
+
+    /*
+      Treatments outside the span of the drug's rows, typically ones that start
+      after everything prescribed so far, are answered without a scan; other
+      ones walk the drug's rows comparing the start and stop columns only.
+    */
+    private boolean overlaps(int drugKey, Treatment treatment) {
+        if (drugKey >= lastRowOfDrug.length) return false;
+
+        int patientKey = keyOfPatient(treatment.getPatientId());
+        if (patientKey == UNKNOWN_PATIENT) return false;
+
+        int start = CompactTreatment.toDay(treatment.getStartsOn());
+        int stop = CompactTreatment.toDay(treatment.getStopsOn());
+        if (start > lastStopOfDrug[drugKey] || stop < firstStartOfDrug[drugKey]) return false;
+
+        for (int row = lastRowOfDrug[drugKey]; row != NO_ROW; row = previousOfDrugColumn.get(row)) {
+            if (startColumn.get(row) <= stop && start <= stopColumn.get(row) && patientColumn.get(row) == patientKey)
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isTakenBetween(int row, int from, int to) {
+        return startColumn.get(row) <= to && stopColumn.get(row) >= from;
+    }
+
+    private Treatment materialize(int row) {
+        Treatment treatment = new Treatment();
+
+        treatment.setId(Integer.toString(row));
+        treatment.setPatientId(patientIds.get(patientColumn.get(row)));
+        treatment.setDrug(drugKeys.entity(drugColumn.get(row)));
+        treatment.setDosage(dosageKeys.entity(dosageColumn.get(row)));
+        treatment.setStartsOn(CompactTreatment.toDate(startColumn.get(row)));
+        treatment.setStopsOn(CompactTreatment.toDate(stopColumn.get(row)));
+        treatment.setPeriod(flyweights.period(CompactTreatment.toPeriod(amountColumn.get(row), unitColumn.get(row))));
+
+        return treatment;
+    }
+
+    // callers hold the write lock
+    private int registerPatient(String patientId) {
+        if (Objects.isNull(patientId)) return NO_PATIENT;
+
+        return patientKeys.computeIfAbsent(patientId, id -> {
+            patientIds.add(id);
+            return patientIds.size() - 1;
+        });
+    }
+
+    // UNKNOWN_PATIENT for a patient with no rows; callers hold the lock
+    private int keyOfPatient(String patientId) {
+        if (Objects.isNull(patientId)) return NO_PATIENT;
+
+        return patientKeys.getOrDefault(patientId, UNKNOWN_PATIENT);
+    }
+
+    private static int toRow(String id) {
+        if (Objects.isNull(id) || id.isEmpty() || id.length() > 10) return NO_ROW;
+
+        long row = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return NO_ROW;
+            row = row * 10 + (c - '0');
+        }
+        return row > Integer.MAX_VALUE ? NO_ROW : (int) row;
+    }
+
+    private String drugId(Treatment treatment) {
+        return Objects.isNull(treatment.getDrug()) ? null : treatment.getDrug().getId();
+    }
+}
@@ -0,0 +1,172 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import usecases.DemandGateway;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+  Treatments spread over partitions by patient, each an IndexedTreatmentGateway
+  with its own indexes and locks. All of a patient's treatments live in one
+  partition, so overlap checks never look past it and prescriptions for
+  patients in different partitions never wait on each other. Reads that span
+  patients ask every partition at once and merge what they answer.
+*/
+public class PartitionedTreatmentGateway implements TreatmentGateway, DemandGateway {
+    static final int DEFAULT_PARTITIONS = 16;
+    private static final int STRIPES_PER_PARTITION = 8;
+
+    private final IndexedTreatmentGateway[] partitions;
+
+    public PartitionedTreatmentGateway() {
+        this(DEFAULT_PARTITIONS);
+    }
+
+    public PartitionedTreatmentGateway(int partitions) {
+        this(partitions, new Flyweights());
+    }
+
+    // the partitions share the flyweights, as they are one store
+    PartitionedTreatmentGateway(int partitions, Flyweights flyweights) {
+        if (partitions < 1) throw new IllegalArgumentException("At least one partition is required");
+
+        this.partitions = new IndexedTreatmentGateway[PowersOfTwo.atLeast(partitions)];
+        for (int i = 0; i < this.partitions.length; i++) {
+            this.partitions[i] = new IndexedTreatmentGateway(STRIPES_PER_PARTITION, flyweights);
+        }
+    }
+
+    @Override
+    public Treatment save(Treatment treatment) {
+        return partitionOf(treatment).save(treatment);
+    }
+
+    // see IndexedTreatmentGateway for beforeStore
+    Treatment save(Treatment treatment, Consumer<Treatment> beforeStore) {
+        return partitionOf(treatment).save(treatment, beforeStore);
+    }
+
+    @Override
+    public boolean doesTreatmentExist(Treatment treatment) {
+        return partitionOf(treatment).doesTreatmentExist(treatment);
+    }
+
+    @Override
+    public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        return partitionOf(treatment).saveIfNoOverlap(treatment, afterCheck);
+    }
+
+    boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck, Consumer<Treatment> beforeStore) {
+        return partitionOf(treatment).saveIfNoOverlap(treatment, afterCheck, beforeStore);
+    }
+
+    @Override
+    public List<Treatment> saveAll(List<Treatment> treatments) {
+        return saveAll(treatments, treatment -> {});
+    }
+
+    // every partition saves its share of the batch at the same time
+    List<Treatment> saveAll(List<Treatment> treatments, Consumer<Treatment> beforeStore) {
+        List<List<Treatment>> shares = split(treatments);
+
+        Set<Treatment> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+        IntStream.range(0, partitions.length).parallel()
+                .mapToObj(i -> partitions[i].saveAll(shares.get(i), beforeStore))
+                .collect(Collectors.toList())
+                .forEach(saved::addAll);
+
+        return treatments.stream().filter(saved::contains).collect(Collectors.toList());
+    }
+
+    @Override
+    public long findDemand(String drugId, LocalDate first, LocalDate last) {
+        return Arrays.stream(partitions).parallel()
+                .mapToLong(partition -> partition.findDemand(drugId, first, last))
+                .sum();
+    }
+
+    // a drug prescribed in several partitions comes back from each, so pages are merged by id
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        TreeMap<String, Drug> merged = new TreeMap<>();
+        Arrays.stream(partitions).parallel()
+                .map(partition -> partition.findPrescribedDrugs(afterDrugId, limit))
+                .collect(Collectors.toList())
+                .forEach(page -> page.forEach(drug -> merged.putIfAbsent(drug.getId(), drug)));
+
+        List<Drug> page = new ArrayList<>(Math.min(limit, merged.size()));
+        for (Drug drug : merged.values()) {
+            if (page.size() == limit) break;
+            page.add(drug);
+        }
+        return page;
+    }
+
+    // the query does not name a patient, so every partition answers and their answers are merged
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        return query.select(Arrays.stream(partitions).parallel()
+                .map(partition -> partition.findTreatments(query))
+                .collect(Collectors.toList())
+                .stream()
+                .flatMap(List::stream));
+    }
+
+    public List<Treatment> findAll() {
+        return Arrays.stream(partitions).parallel()
+                .flatMap(partition -> partition.findAll().stream())
+                .sorted(Comparator.comparing(Treatment::getId))
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return Arrays.stream(partitions).mapToInt(IndexedTreatmentGateway::size).sum();
+    }
+
+    void restore(Treatment treatment) {
+        partitionOf(treatment).restore(treatment);
+    }
+
+    // every partition's treatments in its own index order, one partition after another
+    List<Treatment> findAllInIndexOrder() {
+        List<Treatment> all = new ArrayList<>();
+        for (IndexedTreatmentGateway partition : partitions) all.addAll(partition.findAllInIndexOrder());
+        return all;
+    }
+
+    // splitting keeps the order, so each partition gets its treatments in index order too
+    void restoreSorted(List<Treatment> sorted) {
+        List<List<Treatment>> shares = split(sorted);
+        IntStream.range(0, partitions.length).parallel().forEach(i -> partitions[i].restoreSorted(shares.get(i)));
+    }
+
+    private List<List<Treatment>> split(List<Treatment> treatments) {
+        List<List<Treatment>> shares = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) shares.add(new ArrayList<>());
+        for (Treatment treatment : treatments) shares.get(indexOf(treatment)).add(treatment);
+        return shares;
+    }
+
+    private IndexedTreatmentGateway partitionOf(Treatment treatment) {
+        return partitions[indexOf(treatment)];
+    }
+
+    private int indexOf(Treatment treatment) {
+        int hash = Objects.hashCode(treatment.getPatientId());
+        return (hash ^ hash >>> 16) & (partitions.length - 1);
+    }
+}
@@ -0,0 +1,13 @@
+package gateways;
+
+// sizes for tables whose slots are found by masking a hash or key
+final class PowersOfTwo {
+
+    private PowersOfTwo() {}
+
+    static int atLeast(int value) {
+        int power = 1;
+        while (power < value) power <<= 1;
+        return power;
+    }
+}
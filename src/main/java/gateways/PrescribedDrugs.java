@@ -0,0 +1,64 @@
+package gateways;
+
+import entities.Drug;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+  The drugs that have at least one treatment, kept up to date as treatments
+  come and go instead of being worked out from them on every read. Each drug
+  counts its treatments; it joins the id-ordered set with its first one and
+  leaves it with its last, so a page of prescribed drugs is read straight
+  off the set.
+*/
+final class PrescribedDrugs {
+    private final Map<String, Integer> treatmentCounts = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Drug> drugs = new ConcurrentSkipListMap<>();
+
+    void added(Drug drug) {
+        added(drug, 1);
+    }
+
+    void added(Drug drug, int treatments) {
+        if (treatments < 1) return;
+
+        // the set changes inside compute(), so a drug's count and membership move together
+        treatmentCounts.compute(drug.getId(), (id, count) -> {
+            if (Objects.isNull(count)) {
+                drugs.put(id, drug);
+                return treatments;
+            }
+            return count + treatments;
+        });
+    }
+
+    void removed(Drug drug) {
+        treatmentCounts.computeIfPresent(drug.getId(), (id, count) -> {
+            if (count > 1) return count - 1;
+
+            drugs.remove(id);
+            return null;
+        });
+    }
+
+    int treatmentCount(String drugId) {
+        return treatmentCounts.getOrDefault(drugId, 0);
+    }
+
+    List<Drug> page(String afterDrugId, int limit) {
+        NavigableMap<String, Drug> after = Objects.isNull(afterDrugId) ? drugs : drugs.tailMap(afterDrugId, false);
+
+        List<Drug> page = new ArrayList<>(Math.min(limit, 64));
+        for (Drug drug : after.values()) {
+            if (page.size() == limit) break;
+            page.add(drug);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,12 @@
+package gateways;
+
+/*
+  How a treatment gateway gathers the candidates for a TreatmentQuery before
+  the query itself picks from them: one id looked up, the treatments of one
+  drug taken from its index, or every treatment scanned.
+*/
+enum QueryPlan {
+    BY_ID,
+    BY_DRUG,
+    SCAN
+}
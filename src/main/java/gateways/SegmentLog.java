@@ -0,0 +1,248 @@
+package gateways;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/*
+  Append-only log of records in memory-mapped segment files of a fixed size.
+  A record is [length][crc32][bytes]; its length is written last, and a
+  record whose length or checksum does not add up marks the end of a segment,
+  so a torn write at a crash is dropped on the next open. Every append zeroes
+  the length after its record before writing its own, so whatever a torn
+  write left past the end is never read as a record once appends go on over it.
+
+  append() only copies the record into the mapping. awaitDurable() forces it
+  to disk: one caller forces everything appended so far while concurrent
+  callers wait on it and return without forcing again (group commit).
+*/
+final class SegmentLog implements Closeable {
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Object forceLock = new Object();
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment current;
+    private int offset;
+    private long written;
+    private volatile long durable;
+
+    private SegmentLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    static <T> SegmentLog open(Path directory, int segmentSize,
+                               Function<ByteBuffer, T> decoder, Consumer<T> replay) throws IOException {
+        return open(directory, segmentSize, 0, decoder, replay);
+    }
+
+    /*
+      Opens the log in the directory, creating it when needed, and hands every
+      record stored at or after the from position to replay in append order.
+      Segments are read and decoded in parallel, so decoder must not depend on
+      shared state; segments wholly before from are not decoded at all.
+    */
+    static <T> SegmentLog open(Path directory, int segmentSize, long from,
+                               Function<ByteBuffer, T> decoder, Consumer<T> replay) throws IOException {
+        if (segmentSize <= HEADER) throw new IllegalArgumentException("Segment is too small to hold a record");
+
+        Files.createDirectories(directory);
+        SegmentLog log = new SegmentLog(directory, segmentSize);
+
+        for (Path file : segmentFiles(directory)) log.segments.add(log.map(file, log.segments.size()));
+        if (log.segments.isEmpty()) log.segments.add(log.map(log.fileOf(0), 0));
+
+        int fromSegment = (int) (from / segmentSize);
+        int fromOffset = (int) (from % segmentSize);
+        int last = log.segments.size() - 1;
+
+        List<Scan<T>> scans = log.segments.parallelStream()
+                .map(segment -> {
+                    // an earlier segment is only read when it is the last one, to find where appends go on
+                    if (segment.index < fromSegment && segment.index != last) return Scan.<T>empty();
+
+                    int start = segment.index == fromSegment ? fromOffset : 0;
+                    return segment.scan(decoder, start, segment.index >= fromSegment);
+                })
+                .collect(Collectors.toList());
+        scans.forEach(scan -> scan.records.forEach(replay));
+
+        log.current = log.segments.get(last);
+        log.offset = scans.get(last).end;
+        if (log.position() < from)
+            throw new IllegalStateException(String.format("Log in %s ends before position %d", directory, from));
+
+        log.current.endAt(log.offset);
+        log.written = log.position();
+        log.durable = log.written;
+
+        return log;
+    }
+
+    // returns the position just past the record, to be passed to awaitDurable
+    synchronized long append(byte[] record) {
+        if (record.length == 0 || record.length > segmentSize - HEADER)
+            throw new IllegalArgumentException(String.format("Record of %d bytes does not fit a segment", record.length));
+
+        if (offset + HEADER + record.length > segmentSize) roll();
+
+        ByteBuffer buffer = current.buffer;
+        buffer.putInt(offset + Integer.BYTES, checksum(ByteBuffer.wrap(record)));
+        buffer.position(offset + HEADER);
+        buffer.put(record);
+        current.endAt(offset + HEADER + record.length);
+        buffer.putInt(offset, record.length);
+
+        offset += HEADER + record.length;
+        written = position();
+        return written;
+    }
+
+    void awaitDurable(long position) {
+        if (durable >= position) return;
+
+        synchronized (forceLock) {
+            if (durable >= position) return;
+
+            long target;
+            Segment segment;
+            synchronized (this) {
+                target = written;
+                segment = current;
+            }
+            segment.buffer.force();
+            durable = target;
+        }
+    }
+
+    synchronized long written() {
+        return written;
+    }
+
+    int segmentCount() {
+        synchronized (this) {
+            return segments.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (this) {
+                current.buffer.force();
+                durable = written;
+                for (Segment segment : segments) segment.channel.close();
+            }
+        }
+    }
+
+    // callers hold the monitor; earlier segments are forced before they stop being current
+    private void roll() {
+        current.buffer.force();
+        try {
+            current = map(fileOf(segments.size()), segments.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(current);
+        offset = 0;
+    }
+
+    private long position() {
+        return (long) current.index * segmentSize + offset;
+    }
+
+    private Segment map(Path file, int index) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private Path fileOf(int index) {
+        return directory.resolve(String.format("%010d%s", index, SUFFIX));
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static final class Scan<T> {
+        private final List<T> records;
+        private final int end;
+
+        private Scan(List<T> records, int end) {
+            this.records = records;
+            this.end = end;
+        }
+
+        private static <T> Scan<T> empty() {
+            return new Scan<>(new ArrayList<>(), 0);
+        }
+    }
+
+    private static final class Segment {
+        private final int index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(int index, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private <T> Scan<T> scan(Function<ByteBuffer, T> decoder, int from, boolean decodes) {
+            ByteBuffer view = buffer.duplicate();
+            List<T> records = new ArrayList<>();
+
+            int position = from;
+            while (position + HEADER <= view.capacity()) {
+                int length = view.getInt(position);
+                if (length <= 0 || length > view.capacity() - position - HEADER) break;
+
+                view.limit(position + HEADER + length).position(position + HEADER);
+                ByteBuffer record = view.slice();
+                view.clear();
+
+                if (checksum(record.duplicate()) != view.getInt(position + Integer.BYTES)) break;
+
+                if (decodes) records.add(decoder.apply(record));
+                position += HEADER + length;
+            }
+            return new Scan<>(records, position);
+        }
+
+        // a zero length ends the scan, whatever a torn write left after it
+        private void endAt(int position) {
+            if (position + Integer.BYTES <= buffer.capacity()) buffer.putInt(position, 0);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/*
+  Point-in-time copy of a FileStore: its drugs, dosages and treatments, the
+  latter ordered by drug and start so the overlap index is rebuilt in one
+  pass, plus the log position the copy covers. Records use the log's
+  encoding and the file ends with a crc32 of everything before it.
+*/
+final class Snapshot {
+    private static final String FILE = "snapshot.bin";
+    private static final int MAGIC = 0x484f4d53;
+    private static final int VERSION = 1;
+
+    private final long position;
+    private final List<Drug> drugs;
+    private final List<Dosage> dosages;
+    private final List<Treatment> treatments;
+
+    Snapshot(long position, List<Drug> drugs, List<Dosage> dosages, List<Treatment> treatments) {
+        this.position = position;
+        this.drugs = drugs;
+        this.dosages = dosages;
+        this.treatments = treatments;
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    List<Drug> getDrugs() {
+        return drugs;
+    }
+
+    List<Dosage> getDosages() {
+        return dosages;
+    }
+
+    List<Treatment> getTreatments() {
+        return treatments;
+    }
+
+    // written next to the log and swapped in atomically, so a crash keeps the previous snapshot
+    void write(Path directory, int segmentSize) throws IOException {
+        Path written = directory.resolve(FILE + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(written.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(segmentSize);
+            out.writeLong(position);
+            writeAll(out, drugs, LogRecords::drug);
+            writeAll(out, dosages, LogRecords::dosage);
+            writeAll(out, treatments, LogRecords::treatment);
+
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            file.getChannel().force(true);
+        }
+
+        Files.move(written, directory.resolve(FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+    }
+
+    // the rename itself is only durable once the directory is; some platforms cannot open one to force it
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // nothing more can be done there
+        }
+    }
+
+    /*
+      Maps the snapshot of the directory back. Records are found in one pass
+      and decoded in parallel, as log segments are. Treatments refer to drugs
+      and dosages by id, as decoded log records do. Null when there is no usable
+      snapshot: none was taken, it is damaged, or it was taken with another
+      segment size, so its log position means something else.
+    */
+    static Snapshot read(Path directory, int segmentSize) throws IOException {
+        Path file = directory.resolve(FILE);
+        if (!Files.exists(file)) return null;
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int header = 3 * Integer.BYTES + Long.BYTES;
+        if (buffer.capacity() < header + Integer.BYTES) return null;
+
+        ByteBuffer content = buffer.duplicate();
+        content.limit(buffer.capacity() - Integer.BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        if ((int) crc.getValue() != buffer.getInt(buffer.capacity() - Integer.BYTES)) return null;
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != segmentSize) return null;
+        long position = buffer.getLong();
+
+        List<Drug> drugs = readAll(buffer, Drug.class);
+        List<Dosage> dosages = readAll(buffer, Dosage.class);
+        List<Treatment> treatments = readAll(buffer, Treatment.class);
+
+        return new Snapshot(position, drugs, dosages, treatments);
+    }
+
+    private static <T> void writeAll(DataOutputStream out, List<T> entities, Function<T, byte[]> encoder)
+            throws IOException {
+        out.writeInt(entities.size());
+        for (T entity : entities) {
+            byte[] record = encoder.apply(entity);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+    }
+
+    private static <T> List<T> readAll(ByteBuffer buffer, Class<T> type) {
+        int count = buffer.getInt();
+        List<ByteBuffer> records = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+
+            records.add(record);
+        }
+        return records.parallelStream()
+                .map(record -> type.cast(LogRecords.decode(record)))
+                .collect(Collectors.toList());
+    }
+}
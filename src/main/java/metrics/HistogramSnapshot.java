@@ -0,0 +1,51 @@
+package metrics;
+
+public final class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long total, long max) {
+        this.counts = counts;
+        this.total = total;
+        this.max = max;
+
+        long count = 0;
+        for (long c : counts) count += c;
+        this.count = count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    // percentile in (0, 100]; reported as the upper bound of the bucket, never above max
+    public long percentile(double percentile) {
+        if (percentile <= 0 || percentile > 100)
+            throw new IllegalArgumentException(String.format("Percentile must be in (0, 100]: %s", percentile));
+        if (count == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(LatencyHistogram.upperBound(i), max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{count=%d, mean=%.1f, p50=%d, p99=%d, p99.9=%d, max=%d}",
+                count, getMean(), percentile(50), percentile(99), percentile(99.9), max);
+    }
+}
@@ -0,0 +1,57 @@
+package metrics;
+
+import entities.Dosage;
+import usecases.DosageGateway;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class InstrumentedDosageGateway implements DosageGateway {
+    private final DosageGateway gateway;
+    private final PrescribeMetrics metrics;
+
+    private InstrumentedDosageGateway(DosageGateway gateway, PrescribeMetrics metrics) {
+        this.gateway = gateway;
+        this.metrics = metrics;
+    }
+
+    public static DosageGateway of(DosageGateway gateway, PrescribeMetrics metrics) {
+        return metrics.isEnabled() ? new InstrumentedDosageGateway(gateway, metrics) : gateway;
+    }
+
+    @Override
+    public Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId) {
+        return gateway.findDrugDosageByTreatmentId(drugId, treatmentId);
+    }
+
+    @Override
+    public Dosage save(Dosage dosage) {
+        return gateway.save(dosage);
+    }
+
+    @Override
+    public Dosage findById(String dosageId) {
+        long started = System.nanoTime();
+        try {
+            return gateway.findById(dosageId);
+        } finally {
+            metrics.recordSince(Stage.DOSAGE_LOOKUP, started);
+        }
+    }
+
+    @Override
+    public List<Dosage> findByIds(Collection<String> dosageIds) {
+        long started = System.nanoTime();
+        try {
+            return gateway.findByIds(dosageIds);
+        } finally {
+            metrics.recordSince(Stage.DOSAGE_LOOKUP, started);
+        }
+    }
+
+    @Override
+    public Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds) {
+        return gateway.findDosagesByDrugIds(drugIds);
+    }
+}
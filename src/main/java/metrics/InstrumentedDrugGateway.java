@@ -0,0 +1,61 @@
+package metrics;
+
+import entities.Drug;
+import usecases.DrugGateway;
+
+import java.util.Collection;
+import java.util.List;
+
+public class InstrumentedDrugGateway implements DrugGateway {
+    private final DrugGateway gateway;
+    private final PrescribeMetrics metrics;
+
+    private InstrumentedDrugGateway(DrugGateway gateway, PrescribeMetrics metrics) {
+        this.gateway = gateway;
+        this.metrics = metrics;
+    }
+
+    public static DrugGateway of(DrugGateway gateway, PrescribeMetrics metrics) {
+        return metrics.isEnabled() ? new InstrumentedDrugGateway(gateway, metrics) : gateway;
+    }
+
+    @Override
+    public List<Drug> findAll() {
+        return gateway.findAll();
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs() {
+        return gateway.findPrescribedDrugs();
+    }
+
+    @Override
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        return gateway.findPrescribedDrugs(afterDrugId, limit);
+    }
+
+    @Override
+    public Drug save(Drug drug) {
+        return gateway.save(drug);
+    }
+
+    @Override
+    public Drug findById(String drugId) {
+        long started = System.nanoTime();
+        try {
+            return gateway.findById(drugId);
+        } finally {
+            metrics.recordSince(Stage.DRUG_LOOKUP, started);
+        }
+    }
+
+    @Override
+    public List<Drug> findByIds(Collection<String> drugIds) {
+        long started = System.nanoTime();
+        try {
+            return gateway.findByIds(drugIds);
+        } finally {
+            metrics.recordSince(Stage.DRUG_LOOKUP, started);
+        }
+    }
+}
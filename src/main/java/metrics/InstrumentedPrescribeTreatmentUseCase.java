@@ -0,0 +1,58 @@
+package metrics;
+
+import usecases.DosageGateway;
+import usecases.DrugGateway;
+import usecases.TreatmentGateway;
+import usecases.UseCaseValidator;
+import usecases.prescribetreatment.PrescribeTreatmentCommand;
+import usecases.prescribetreatment.PrescribeTreatmentRequest;
+import usecases.prescribetreatment.PrescribeTreatmentResult;
+import usecases.prescribetreatment.PrescribeTreatmentUseCase;
+
+import java.util.List;
+
+/*
+  Times every stage of prescribing and counts rejections by reason. With
+  disabled metrics nothing is wrapped and tryPrescribe() only reads a flag.
+*/
+public class InstrumentedPrescribeTreatmentUseCase extends PrescribeTreatmentUseCase {
+    private final PrescribeMetrics metrics;
+
+    public InstrumentedPrescribeTreatmentUseCase(TreatmentGateway treatmentGateway,
+                                                 DrugGateway drugGateway,
+                                                 DosageGateway dosageGateway,
+                                                 UseCaseValidator<PrescribeTreatmentCommand> validator,
+                                                 PrescribeMetrics metrics) {
+        super(InstrumentedTreatmentGateway.of(treatmentGateway, metrics),
+                InstrumentedDrugGateway.of(drugGateway, metrics),
+                InstrumentedDosageGateway.of(dosageGateway, metrics),
+                InstrumentedUseCaseValidator.of(validator, metrics));
+        this.metrics = metrics;
+    }
+
+    // prescribe() goes through here too, so both entry points are timed once
+    @Override
+    public PrescribeTreatmentResult tryPrescribe(PrescribeTreatmentRequest request) {
+        if (!metrics.isEnabled()) return super.tryPrescribe(request);
+
+        long started = System.nanoTime();
+        try {
+            PrescribeTreatmentResult result = super.tryPrescribe(request);
+            if (!result.isSuccess()) metrics.reject(result.getReason());
+            return result;
+        } finally {
+            metrics.recordSince(Stage.PRESCRIBE, started);
+        }
+    }
+
+    @Override
+    public List<PrescribeTreatmentResult> prescribeAll(List<PrescribeTreatmentRequest> requests) {
+        List<PrescribeTreatmentResult> results = super.prescribeAll(requests);
+        if (!metrics.isEnabled()) return results;
+
+        results.stream()
+                .filter(result -> !result.isSuccess())
+                .forEach(result -> metrics.reject(result.getReason()));
+        return results;
+    }
+}
@@ -0,0 +1,81 @@
+package metrics;
+
+import entities.Treatment;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.util.List;
+
+public class InstrumentedTreatmentGateway implements TreatmentGateway {
+    private final TreatmentGateway gateway;
+    private final PrescribeMetrics metrics;
+
+    private InstrumentedTreatmentGateway(TreatmentGateway gateway, PrescribeMetrics metrics) {
+        this.gateway = gateway;
+        this.metrics = metrics;
+    }
+
+    public static TreatmentGateway of(TreatmentGateway gateway, PrescribeMetrics metrics) {
+        return metrics.isEnabled() ? new InstrumentedTreatmentGateway(gateway, metrics) : gateway;
+    }
+
+    @Override
+    public Treatment save(Treatment treatment) {
+        long started = System.nanoTime();
+        try {
+            return gateway.save(treatment);
+        } finally {
+            metrics.recordSince(Stage.SAVE, started);
+        }
+    }
+
+    @Override
+    public boolean doesTreatmentExist(Treatment treatment) {
+        long started = System.nanoTime();
+        try {
+            return gateway.doesTreatmentExist(treatment);
+        } finally {
+            metrics.recordSince(Stage.OVERLAP_CHECK, started);
+        }
+    }
+
+    /*
+      The check and the save are timed apart, the check ending where the gateway
+      reports it done. That callback runs under the gateway's lock, so it only
+      takes the time; both are recorded once the gateway returns, and a
+      rejected treatment records no save.
+    */
+    @Override
+    public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        long started = System.nanoTime();
+        long[] checked = {started};
+        boolean saved = gateway.saveIfNoOverlap(treatment, () -> {
+            checked[0] = System.nanoTime();
+            afterCheck.run();
+        });
+
+        if (!saved) {
+            metrics.recordSince(Stage.OVERLAP_CHECK, started);
+            return false;
+        }
+        metrics.recordBetween(Stage.OVERLAP_CHECK, started, checked[0]);
+        metrics.recordSince(Stage.SAVE, checked[0]);
+        return true;
+    }
+
+    @Override
+    public List<Treatment> saveAll(List<Treatment> treatments) {
+        long started = System.nanoTime();
+        try {
+            return gateway.saveAll(treatments);
+        } finally {
+            metrics.recordSince(Stage.SAVE, started);
+        }
+    }
+
+    // queries are not a stage of prescribing
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        return gateway.findTreatments(query);
+    }
+}
@@ -0,0 +1,29 @@
+package metrics;
+
+import usecases.UseCaseRequest;
+import usecases.UseCaseValidator;
+import usecases.ValidationResult;
+
+public class InstrumentedUseCaseValidator<T> implements UseCaseValidator<T> {
+    private final UseCaseValidator<T> validator;
+    private final PrescribeMetrics metrics;
+
+    private InstrumentedUseCaseValidator(UseCaseValidator<T> validator, PrescribeMetrics metrics) {
+        this.validator = validator;
+        this.metrics = metrics;
+    }
+
+    public static <T> UseCaseValidator<T> of(UseCaseValidator<T> validator, PrescribeMetrics metrics) {
+        return metrics.isEnabled() ? new InstrumentedUseCaseValidator<>(validator, metrics) : validator;
+    }
+
+    @Override
+    public ValidationResult<T> validate(UseCaseRequest<?> request) {
+        long started = System.nanoTime();
+        try {
+            return validator.validate(request);
+        } finally {
+            metrics.recordSince(Stage.VALIDATION, started);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package metrics;
+
+import usecases.prescribetreatment.RejectionReason;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PrescribeMetrics {
+    private static final PrescribeMetrics DISABLED = new PrescribeMetrics(false);
+
+    private final boolean enabled;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Stage.values().length];
+    private final LongAdder[] rejections = new LongAdder[RejectionReason.values().length];
+
+    private PrescribeMetrics(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) return;
+
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+        for (int i = 0; i < rejections.length; i++) rejections[i] = new LongAdder();
+    }
+
+    public static PrescribeMetrics enabled() {
+        return new PrescribeMetrics(true);
+    }
+
+    public static PrescribeMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordSince(Stage stage, long startedNanos) {
+        recordBetween(stage, startedNanos, System.nanoTime());
+    }
+
+    void recordBetween(Stage stage, long startedNanos, long endedNanos) {
+        latencies[stage.ordinal()].record(endedNanos - startedNanos);
+    }
+
+    public void reject(RejectionReason reason) {
+        rejections[reason.ordinal()].increment();
+    }
+
+    public Snapshot snapshot() {
+        Map<Stage, HistogramSnapshot> stageLatencies = new EnumMap<>(Stage.class);
+        Map<RejectionReason, Long> rejectionCounts = new EnumMap<>(RejectionReason.class);
+
+        if (enabled) {
+            for (Stage stage : Stage.values()) stageLatencies.put(stage, latencies[stage.ordinal()].snapshot());
+            for (RejectionReason reason : RejectionReason.values()) rejectionCounts.put(reason, rejections[reason.ordinal()].sum());
+        }
+
+        return new Snapshot(stageLatencies, rejectionCounts);
+    }
+
+    public static final class Snapshot {
+        private static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[0], 0, 0);
+
+        private final Map<Stage, HistogramSnapshot> latencies;
+        private final Map<RejectionReason, Long> rejections;
+
+        private Snapshot(Map<Stage, HistogramSnapshot> latencies, Map<RejectionReason, Long> rejections) {
+            this.latencies = latencies;
+            this.rejections = rejections;
+        }
+
+        public HistogramSnapshot latency(Stage stage) {
+            return latencies.getOrDefault(stage, EMPTY);
+        }
+
+        public long rejections(RejectionReason reason) {
+            return rejections.getOrDefault(reason, 0L);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{latencies=%s, rejections=%s}", latencies, rejections);
+        }
+    }
+}
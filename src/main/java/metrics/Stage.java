@@ -0,0 +1,11 @@
+package metrics;
+
+public enum Stage {
+    PRESCRIBE,
+    VALIDATION,
+    DRUG_LOOKUP,
+    DOSAGE_LOOKUP,
+    OVERLAP_CHECK,
+    // saveAll includes its own overlap checks; saveIfNoOverlap records its check apart
+    SAVE
+}
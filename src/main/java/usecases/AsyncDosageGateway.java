@@ -0,0 +1,20 @@
+package usecases;
+
+import entities.Dosage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncDosageGateway {
+    CompletableFuture<Dosage> findDrugDosageByTreatmentId(String drugId, String treatmentId);
+
+    CompletableFuture<Dosage> save(Dosage dosage);
+
+    CompletableFuture<Dosage> findById(String dosageId);
+
+    CompletableFuture<List<Dosage>> findByIds(Collection<String> dosageIds);
+
+    CompletableFuture<Map<String, List<Dosage>>> findDosagesByDrugIds(Collection<String> drugIds);
+}
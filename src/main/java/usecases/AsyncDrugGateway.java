@@ -0,0 +1,21 @@
+package usecases;
+
+import entities.Drug;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncDrugGateway {
+    CompletableFuture<List<Drug>> findAll();
+
+    CompletableFuture<List<Drug>> findPrescribedDrugs();
+
+    CompletableFuture<List<Drug>> findPrescribedDrugs(String afterDrugId, int limit);
+
+    CompletableFuture<Drug> save(Drug drug);
+
+    CompletableFuture<Drug> findById(String drugId);
+
+    CompletableFuture<List<Drug>> findByIds(Collection<String> drugIds);
+}
@@ -0,0 +1,225 @@
+package usecases;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/*
+  Adapters between the sync and async gateways. async() runs every call of a
+  sync gateway on the given executor; blocking() waits for an async gateway
+  and rethrows what its future failed with.
+*/
+public final class AsyncGateways {
+
+    private AsyncGateways() {}
+
+    public static AsyncTreatmentGateway async(TreatmentGateway gateway, Executor executor) {
+        return new AsyncTreatmentGateway() {
+            @Override
+            public CompletableFuture<Treatment> save(Treatment treatment) {
+                return supply(() -> gateway.save(treatment), executor);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> doesTreatmentExist(Treatment treatment) {
+                return supply(() -> gateway.doesTreatmentExist(treatment), executor);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> saveIfNoOverlap(Treatment treatment) {
+                return supply(() -> gateway.saveIfNoOverlap(treatment), executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Treatment>> saveAll(List<Treatment> treatments) {
+                return supply(() -> gateway.saveAll(treatments), executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Treatment>> findTreatments(TreatmentQuery query) {
+                return supply(() -> gateway.findTreatments(query), executor);
+            }
+        };
+    }
+
+    public static AsyncDrugGateway async(DrugGateway gateway, Executor executor) {
+        return new AsyncDrugGateway() {
+            @Override
+            public CompletableFuture<List<Drug>> findAll() {
+                return supply(gateway::findAll, executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Drug>> findPrescribedDrugs() {
+                return supply(gateway::findPrescribedDrugs, executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Drug>> findPrescribedDrugs(String afterDrugId, int limit) {
+                return supply(() -> gateway.findPrescribedDrugs(afterDrugId, limit), executor);
+            }
+
+            @Override
+            public CompletableFuture<Drug> save(Drug drug) {
+                return supply(() -> gateway.save(drug), executor);
+            }
+
+            @Override
+            public CompletableFuture<Drug> findById(String drugId) {
+                return supply(() -> gateway.findById(drugId), executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Drug>> findByIds(Collection<String> drugIds) {
+                return supply(() -> gateway.findByIds(drugIds), executor);
+            }
+        };
+    }
+
+    public static AsyncDosageGateway async(DosageGateway gateway, Executor executor) {
+        return new AsyncDosageGateway() {
+            @Override
+            public CompletableFuture<Dosage> findDrugDosageByTreatmentId(String drugId, String treatmentId) {
+                return supply(() -> gateway.findDrugDosageByTreatmentId(drugId, treatmentId), executor);
+            }
+
+            @Override
+            public CompletableFuture<Dosage> save(Dosage dosage) {
+                return supply(() -> gateway.save(dosage), executor);
+            }
+
+            @Override
+            public CompletableFuture<Dosage> findById(String dosageId) {
+                return supply(() -> gateway.findById(dosageId), executor);
+            }
+
+            @Override
+            public CompletableFuture<List<Dosage>> findByIds(Collection<String> dosageIds) {
+                return supply(() -> gateway.findByIds(dosageIds), executor);
+            }
+
+            @Override
+            public CompletableFuture<Map<String, List<Dosage>>> findDosagesByDrugIds(Collection<String> drugIds) {
+                return supply(() -> gateway.findDosagesByDrugIds(drugIds), executor);
+            }
+        };
+    }
+
+    public static TreatmentGateway blocking(AsyncTreatmentGateway gateway) {
+        return new TreatmentGateway() {
+            @Override
+            public Treatment save(Treatment treatment) {
+                return await(gateway.save(treatment));
+            }
+
+            @Override
+            public boolean doesTreatmentExist(Treatment treatment) {
+                return await(gateway.doesTreatmentExist(treatment));
+            }
+
+            // the async gateway does not tell its phases apart, so the check is reported done with the save
+            @Override
+            public boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+                boolean saved = await(gateway.saveIfNoOverlap(treatment));
+                afterCheck.run();
+                return saved;
+            }
+
+            @Override
+            public List<Treatment> saveAll(List<Treatment> treatments) {
+                return await(gateway.saveAll(treatments));
+            }
+
+            @Override
+            public List<Treatment> findTreatments(TreatmentQuery query) {
+                return await(gateway.findTreatments(query));
+            }
+        };
+    }
+
+    public static DrugGateway blocking(AsyncDrugGateway gateway) {
+        return new DrugGateway() {
+            @Override
+            public List<Drug> findAll() {
+                return await(gateway.findAll());
+            }
+
+            @Override
+            public List<Drug> findPrescribedDrugs() {
+                return await(gateway.findPrescribedDrugs());
+            }
+
+            @Override
+            public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+                return await(gateway.findPrescribedDrugs(afterDrugId, limit));
+            }
+
+            @Override
+            public Drug save(Drug drug) {
+                return await(gateway.save(drug));
+            }
+
+            @Override
+            public Drug findById(String drugId) {
+                return await(gateway.findById(drugId));
+            }
+
+            @Override
+            public List<Drug> findByIds(Collection<String> drugIds) {
+                return await(gateway.findByIds(drugIds));
+            }
+        };
+    }
+
+    public static DosageGateway blocking(AsyncDosageGateway gateway) {
+        return new DosageGateway() {
+            @Override
+            public Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId) {
+                return await(gateway.findDrugDosageByTreatmentId(drugId, treatmentId));
+            }
+
+            @Override
+            public Dosage save(Dosage dosage) {
+                return await(gateway.save(dosage));
+            }
+
+            @Override
+            public Dosage findById(String dosageId) {
+                return await(gateway.findById(dosageId));
+            }
+
+            @Override
+            public List<Dosage> findByIds(Collection<String> dosageIds) {
+                return await(gateway.findByIds(dosageIds));
+            }
+
+            @Override
+            public Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds) {
+                return await(gateway.findDosagesByDrugIds(drugIds));
+            }
+        };
+    }
+
+    private static <T> CompletableFuture<T> supply(Supplier<T> call, Executor executor) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package usecases;
+
+import entities.Treatment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTreatmentGateway {
+    CompletableFuture<Treatment> save(Treatment treatment);
+
+    CompletableFuture<Boolean> doesTreatmentExist(Treatment treatment);
+
+    CompletableFuture<Boolean> saveIfNoOverlap(Treatment treatment);
+
+    CompletableFuture<List<Treatment>> saveAll(List<Treatment> treatments);
+
+    CompletableFuture<List<Treatment>> findTreatments(TreatmentQuery query);
+}
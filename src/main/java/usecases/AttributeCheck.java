@@ -0,0 +1,6 @@
+package usecases;
+
+@FunctionalInterface
+public interface AttributeCheck {
+    void check(ValidationContext context, int slot);
+}
@@ -1,115 +1,141 @@
 package usecases;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.function.Consumer;
 
-public abstract class BaseUseCaseValidator implements UseCaseValidator {
-    private Map<String, String> attributes = new HashMap<>();
-    private Map<String, Consumer<String>> rules = new HashMap<>();
-    private List<String> errors = new ArrayList<>();
-    private UseCaseRequest request;
+/*
+  Holds no per-call state: the rules are compiled once into flat arrays of
+  (slot, check) pairs over the request schema, and every validate() call
+  works on its own ValidationContext, so one instance can be shared by all
+  request threads. Only a request that passed every check is built into
+  the value the result carries.
+*/
+public abstract class BaseUseCaseValidator<T> implements UseCaseValidator<T> {
+    private final RequestSchema schema;
+    private final String[] attributeNames;
+    // in the order they were added, which is the order their errors are reported in
+    private final Map<String, AttributeCheck> rules = new LinkedHashMap<>();
+
+    private final int[] checkedSlots;
+    private final AttributeCheck[] checks;
+
+    public BaseUseCaseValidator(RequestSchema schema) {
+        this.schema = schema;
+        this.attributeNames = new String[schema.size()];
 
-    public BaseUseCaseValidator() {
         fillRequiredAttributes();
         initializeRules();
-    }
 
-    @Override
-    public void validate(UseCaseRequest request) {
-        this.request = request;
-        errors.clear();
-        rules.forEach((attribute, rule) -> rule.accept(attribute));
+        List<Integer> compiledSlots = new ArrayList<>();
+        List<AttributeCheck> compiledChecks = new ArrayList<>();
+        rules.forEach((attribute, rule) -> {
+            List<AttributeCheck> ruleChecks = rule instanceof ValidationRule
+                    ? ((ValidationRule) rule).checks()
+                    : Collections.singletonList(rule);
+            ruleChecks.forEach(check -> {
+                compiledSlots.add(schema.slot(attribute));
+                compiledChecks.add(check);
+            });
+        });
+
+        checkedSlots = compiledSlots.stream().mapToInt(Integer::intValue).toArray();
+        checks = compiledChecks.toArray(new AttributeCheck[0]);
     }
 
     @Override
-    public boolean isValid() {
-        return errors.isEmpty();
-    }
+    public ValidationResult<T> validate(UseCaseRequest<?> request) {
+        if (request.schema() != schema)
+            throw new IllegalArgumentException(String.format("Expected a request of %s schema", schema));
 
-    // todo: List of attribute + its errors
-    @Override
-    public List<String> errors() {
-        return Collections.unmodifiableList(errors);
+        ValidationContext context = new ValidationContext(request);
+        for (int i = 0; i < checks.length; i++) {
+            checks[i].check(context, checkedSlots[i]);
+        }
+        if (context.hasFailed()) return context.result(null);
+
+        T value = build(request, context);
+        if (Objects.isNull(value) && !context.hasFailed()) context.fail("The request of %s schema is malformed", schema);
+        return context.result(value);
     }
 
     protected abstract void fillRequiredAttributes();
     protected abstract void initializeRules();
 
+    // called for a request of the validator's schema that passed every check; null, after failing the context
+    // with the reason, when the attributes are well-formed but do not make a valid value together
+    protected abstract T build(UseCaseRequest<?> request, ValidationContext context);
+
     protected void addAttribute(String attribute, String attributeName) {
-        attributes.put(attribute, attributeName);
+        attributeNames[schema.slot(attribute)] = attributeName;
     }
 
-    protected void addRule(String attribute, Consumer<String> rule) {
+    protected void addRule(String attribute, AttributeCheck rule) {
+        if (Objects.nonNull(checks)) throw new IllegalStateException("Rules can only be added while the validator is built");
         rules.put(attribute, rule);
     }
 
-    protected void requireNonEmpty(String attribute) {
-        String attrValue = request.getParameter(attribute);
+    protected void requireNonEmpty(ValidationContext context, int slot) {
+        String attrValue = context.request().getParameter(slot);
         if (Objects.isNull(attrValue) || attrValue.isEmpty()) {
-            String attrName = attributes.get(attribute);
-            failCheck("'%s' must be present", attrName);
+            String attrName = attributeNames[slot];
+            context.fail("'%s' must be present", attrName);
         }
     }
 
-    protected void checkDateFormat(String attribute) {
-        if (request.isParameterMissing(attribute)) return;
+    protected void checkDateFormat(ValidationContext context, int slot) {
+        UseCaseRequest<?> request = context.request();
+        if (request.isParameterMissing(slot)) return;
 
-        String attrValue = request.getParameter(attribute);
-        try {
-            LocalDate.parse(attrValue, DateTimeFormatter.ISO_LOCAL_DATE);
-        } catch (DateTimeParseException e) {
-            String attrName = attributes.get(attribute);
-            failCheck("'%s' is malformed: '%s'. Accepted format is 'yyyy-MM-dd'", attrName, attrValue);
+        if (Objects.isNull(request.getDateParameter(slot))) {
+            String attrName = attributeNames[slot];
+            context.fail("'%s' is malformed: '%s'. Accepted format is 'yyyy-MM-dd'", attrName, request.getParameter(slot));
         }
     }
 
-    protected void checkIntegerFormat(String attribute) {
-        if (request.isParameterMissing(attribute)) return;
+    protected void checkIntegerFormat(ValidationContext context, int slot) {
+        UseCaseRequest<?> request = context.request();
+        if (request.isParameterMissing(slot)) return;
 
-        String attrValue = request.getParameter(attribute);
-        try {
-            Integer.parseInt(attrValue);
-        } catch (NumberFormatException e) {
-            String attrName = attributes.get(attribute);
-            failCheck("'%s' is malformed: '%s'", attrName, attrValue);
+        long attrValue = request.getLongParameter(slot);
+        if (attrValue == Parsers.MALFORMED || !Parsers.isInt(attrValue)) {
+            String attrName = attributeNames[slot];
+            context.fail("'%s' is malformed: '%s'", attrName, request.getParameter(slot));
         }
     }
 
-    protected void requirePositiveNumber(String attribute) {
-        if (request.isParameterMissing(attribute)) return;
-
-        String attrValue = request.getParameter(attribute);
-        try {
-            long result = Long.parseLong(attrValue);
-            if (result < 0) {
-                String attrName = attributes.get(attribute);
-                failCheck("'%s' must be a positive value", attrName);
-            }
-        } catch (NumberFormatException e) {
-            skipCheck();
+    protected void checkChronoUnitFormat(ValidationContext context, int slot) {
+        UseCaseRequest<?> request = context.request();
+        if (request.isParameterMissing(slot) || request.getParameter(slot).isEmpty()) return;
+
+        if (Objects.isNull(request.getChronoUnitParameter(slot))) {
+            String attrName = attributeNames[slot];
+            context.fail("'%s' is malformed: '%s'", attrName, request.getParameter(slot));
         }
     }
 
-    protected void requireNonZero(String attribute) {
-        if (request.isParameterMissing(attribute)) return;
-
-        String attrValue = request.getParameter(attribute);
-        try {
-            long result = Long.parseLong(attrValue);
-            if (result == 0) {
-                String attrName = attributes.get(attribute);
-                failCheck("'%s' must be greater than zero", attrName);
-            }
-        } catch (NumberFormatException e) {
+    protected void requirePositiveNumber(ValidationContext context, int slot) {
+        UseCaseRequest<?> request = context.request();
+        if (request.isParameterMissing(slot)) return;
+
+        long attrValue = request.getLongParameter(slot);
+        if (attrValue == Parsers.MALFORMED) {
             skipCheck();
+        } else if (attrValue < 0) {
+            String attrName = attributeNames[slot];
+            context.fail("'%s' must be a positive value", attrName);
         }
     }
 
-    private void failCheck(String message, Object... args) {
-        errors.add(String.format(message, args));
+    protected void requireNonZero(ValidationContext context, int slot) {
+        UseCaseRequest<?> request = context.request();
+        if (request.isParameterMissing(slot)) return;
+
+        long attrValue = request.getLongParameter(slot);
+        if (attrValue == Parsers.MALFORMED) {
+            skipCheck();
+        } else if (attrValue == 0) {
+            String attrName = attributeNames[slot];
+            context.fail("'%s' must be greater than zero", attrName);
+        }
     }
 
     private void skipCheck() {}
@@ -0,0 +1,8 @@
+package usecases;
+
+import java.time.LocalDate;
+
+public interface DemandGateway {
+    // units of the drug all its treatments take from first to last, both included
+    long findDemand(String drugId, LocalDate first, LocalDate last);
+}
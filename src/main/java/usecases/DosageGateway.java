@@ -2,10 +2,24 @@ package usecases;
 
 import entities.Dosage;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/*
+  Dosages found may be frozen and shared with every other reader, so their
+  setters throw UnsupportedOperationException. To change one, clone it and
+  save the clone.
+*/
 public interface DosageGateway {
     Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId);
 
     Dosage save(Dosage dosage);
 
     Dosage findById(String dosageId);
+
+    List<Dosage> findByIds(Collection<String> dosageIds);
+
+    // the dosages each drug's treatments are taken in, by drug id; drugs without treatments map to an empty list
+    Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds);
 }
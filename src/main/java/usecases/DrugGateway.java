@@ -2,14 +2,25 @@ package usecases;
 
 import entities.Drug;
 
+import java.util.Collection;
 import java.util.List;
 
+/*
+  Drugs found may be frozen and shared with every other reader, so their
+  setters throw UnsupportedOperationException. To change one, clone it and
+  save the clone.
+*/
 public interface DrugGateway {
     List<Drug> findAll();
 
     List<Drug> findPrescribedDrugs();
 
+    // distinct prescribed drugs in id order, starting after afterDrugId (from the first when null)
+    List<Drug> findPrescribedDrugs(String afterDrugId, int limit);
+
     Drug save(Drug drug);
 
     Drug findById(String drugId);
+
+    List<Drug> findByIds(Collection<String> drugIds);
 }
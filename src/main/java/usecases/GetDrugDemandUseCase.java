@@ -0,0 +1,19 @@
+package usecases;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class GetDrugDemandUseCase {
+    private DemandGateway demandGateway;
+
+    public GetDrugDemandUseCase(DemandGateway demandGateway) {
+        this.demandGateway = demandGateway;
+    }
+
+    public long getDemand(String drugId, LocalDate first, LocalDate last) {
+        if (Objects.isNull(first) || Objects.isNull(last) || last.isBefore(first))
+            throw new IllegalArgumentException(String.format("Not a range of days: %s to %s", first, last));
+
+        return demandGateway.findDemand(drugId, first, last);
+    }
+}
@@ -3,7 +3,20 @@ package usecases;
 import entities.Dosage;
 import entities.Drug;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class GetPrescribedDrugsUseCase {
     private DrugGateway drugGateway;
@@ -18,7 +31,68 @@ public class GetPrescribedDrugsUseCase {
         return drugGateway.findPrescribedDrugs();
     }
 
+    // distinct prescribed drugs in id order; cursor is null for the first page, then the previous page's next cursor
+    public Page<Drug> getPrescribedDrugs(String cursor, int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page must hold at least one drug");
+
+        // one drug more than asked tells whether there is a next page; no store holds more than the largest page
+        int limit = pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+        List<Drug> drugs = drugGateway.findPrescribedDrugs(decode(cursor), limit);
+        if (drugs.size() <= pageSize) return new Page<>(drugs, null);
+
+        List<Drug> page = new ArrayList<>(drugs.subList(0, pageSize));
+        return new Page<>(page, encode(page.get(pageSize - 1).getId()));
+    }
+
+    // fetches the next page only when the stream reaches it
+    public Stream<Drug> streamPrescribedDrugs(int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page must hold at least one drug");
+
+        Iterator<Drug> drugs = new Iterator<Drug>() {
+            private Page<Drug> page;
+            private Iterator<Drug> items = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                if (!items.hasNext() && (Objects.isNull(page) || page.hasNext())) {
+                    page = getPrescribedDrugs(Objects.isNull(page) ? null : page.getNextCursor(), pageSize);
+                    items = page.getItems().iterator();
+                }
+                return items.hasNext();
+            }
+
+            @Override
+            public Drug next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return items.next();
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(drugs,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
     public Dosage getDrugDosage(String drugId, String treatmentId) {
         return dosageGateway.findDrugDosageByTreatmentId(drugId, treatmentId);
     }
+
+    // the dosages of a whole page of drugs in one gateway call, by drug id
+    public Map<String, List<Dosage>> getDrugDosages(List<Drug> drugs) {
+        return dosageGateway.findDosagesByDrugIds(drugs.stream().map(Drug::getId).collect(Collectors.toList()));
+    }
+
+    // the cursor is the last drug id of a page, opaque to callers
+    private static String encode(String drugId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(drugId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        if (Objects.isNull(cursor)) return null;
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Malformed cursor: %s", cursor), e);
+        }
+    }
 }
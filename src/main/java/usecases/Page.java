@@ -0,0 +1,27 @@
+package usecases;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // pass it back to get the next page; null on the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return Objects.nonNull(nextCursor);
+    }
+}
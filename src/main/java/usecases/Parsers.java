@@ -0,0 +1,99 @@
+package usecases;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MONTHS;
+import static java.time.temporal.ChronoUnit.WEEKS;
+import static java.time.temporal.ChronoUnit.YEARS;
+
+/*
+  Parsers that report malformed input with a return value instead of an
+  exception, so rejecting bad input costs no stack trace.
+*/
+public final class Parsers {
+    public static final long MALFORMED = Long.MIN_VALUE;
+
+    // the units a treatment period is given in: a date can always be moved by them
+    private static final ChronoUnit[] UNITS = {DAYS, WEEKS, MONTHS, YEARS};
+
+    private Parsers() {}
+
+    // accepts a signed decimal long; Long.MIN_VALUE itself is reported as MALFORMED
+    public static long parseLong(String value) {
+        if (Objects.isNull(value) || value.isEmpty()) return MALFORMED;
+
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (value.length() == 1) return MALFORMED;
+        }
+
+        long result = 0;
+        for (; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return MALFORMED;
+            if (result > (Long.MAX_VALUE - digit) / 10) return MALFORMED;
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    public static boolean isInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    // strict 'yyyy-MM-dd', as DateTimeFormatter.ISO_LOCAL_DATE for four digit years; null when malformed
+    public static LocalDate parseIsoDate(String value) {
+        if (Objects.isNull(value) || value.length() != 10) return null;
+        if (value.charAt(4) != '-' || value.charAt(7) != '-') return null;
+
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1) return null;
+        if (day > lengthOfMonth(year, month)) return null;
+
+        return LocalDate.of(year, month, day);
+    }
+
+    // case-insensitive name of a date unit, e.g. 'Months'; null when unknown or not a date unit
+    public static ChronoUnit parseChronoUnit(String value) {
+        if (Objects.isNull(value)) return null;
+
+        for (ChronoUnit unit : UNITS) {
+            if (unit.name().equalsIgnoreCase(value)) return unit;
+        }
+        return null;
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
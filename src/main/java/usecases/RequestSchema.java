@@ -0,0 +1,38 @@
+package usecases;
+
+import java.util.Arrays;
+
+public final class RequestSchema {
+    private final String[] attributes;
+
+    private RequestSchema(String[] attributes) {
+        this.attributes = attributes;
+    }
+
+    public static RequestSchema of(String... attributes) {
+        if (Arrays.stream(attributes).distinct().count() != attributes.length)
+            throw new IllegalArgumentException("Attributes must be unique: " + Arrays.toString(attributes));
+
+        return new RequestSchema(attributes.clone());
+    }
+
+    public int slot(String attribute) {
+        for (int slot = 0; slot < attributes.length; slot++) {
+            if (attributes[slot].equals(attribute)) return slot;
+        }
+        throw new IllegalArgumentException(String.format("Unknown attribute '%s'", attribute));
+    }
+
+    public String attribute(int slot) {
+        return attributes[slot];
+    }
+
+    public int size() {
+        return attributes.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(attributes);
+    }
+}
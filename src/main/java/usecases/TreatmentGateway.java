@@ -2,8 +2,23 @@ package usecases;
 
 import entities.Treatment;
 
+import java.util.List;
+
 public interface TreatmentGateway {
     Treatment save(Treatment treatment);
 
     boolean doesTreatmentExist(Treatment treatment);
+
+    default boolean saveIfNoOverlap(Treatment treatment) {
+        return saveIfNoOverlap(treatment, () -> {});
+    }
+
+    // runs afterCheck once the overlap check is done and before anything is saved, so the two can be told apart
+    boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck);
+
+    // saves, in order, every treatment that does not overlap a stored one; returns the saved treatments
+    List<Treatment> saveAll(List<Treatment> treatments);
+
+    // the treatments that match the query, in its order and no more than its limit
+    List<Treatment> findTreatments(TreatmentQuery query);
 }
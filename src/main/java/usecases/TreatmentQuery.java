@@ -0,0 +1,144 @@
+package usecases;
+
+import entities.Treatment;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+  Which treatments to find, handed to the gateway whole so a store can answer
+  from its indexes: a treatment id, a drug, and days the treatments are taken
+  on, any of them optional, plus an order and a limit. Whatever narrowed the
+  candidates, select() applies the full query to them, so a store's plan
+  only decides how many treatments it looks at, never which it returns.
+*/
+public final class TreatmentQuery {
+    public enum Order {ID, START}
+
+    private final String treatmentId;
+    private final String drugId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Order order;
+    private final int limit;
+
+    private TreatmentQuery(Builder builder) {
+        this.treatmentId = builder.treatmentId;
+        this.drugId = builder.drugId;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.order = builder.order;
+        this.limit = builder.limit;
+    }
+
+    public static Builder treatments() {
+        return new Builder();
+    }
+
+    public String getTreatmentId() {
+        return treatmentId;
+    }
+
+    public String getDrugId() {
+        return drugId;
+    }
+
+    // null when the query is not limited to days
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public boolean hasDays() {
+        return Objects.nonNull(from);
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // a treatment is taken on some day of the query when it starts before the last and stops after the first
+    public boolean matches(Treatment treatment) {
+        if (Objects.nonNull(treatmentId) && !treatmentId.equals(treatment.getId())) return false;
+        if (Objects.nonNull(drugId) && (Objects.isNull(treatment.getDrug()) || !drugId.equals(treatment.getDrug().getId())))
+            return false;
+        if (!hasDays()) return true;
+
+        return Objects.nonNull(treatment.getStartsOn()) && Objects.nonNull(treatment.getStopsOn()) &&
+                !treatment.getStartsOn().isAfter(to) && !treatment.getStopsOn().isBefore(from);
+    }
+
+    public Comparator<Treatment> comparator() {
+        Comparator<Treatment> byId = Comparator.comparing(Treatment::getId);
+        if (order == Order.ID) return byId;
+
+        return Comparator.comparing(Treatment::getStartsOn, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(byId);
+    }
+
+    public List<Treatment> select(Stream<Treatment> candidates) {
+        return candidates
+                .filter(this::matches)
+                .sorted(comparator())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public static final class Builder {
+        private String treatmentId;
+        private String drugId;
+        private LocalDate from;
+        private LocalDate to;
+        private Order order = Order.ID;
+        private int limit = Integer.MAX_VALUE;
+
+        private Builder() {}
+
+        public Builder withId(String treatmentId) {
+            this.treatmentId = treatmentId;
+            return this;
+        }
+
+        public Builder ofDrug(String drugId) {
+            this.drugId = drugId;
+            return this;
+        }
+
+        // taken on at least one day from first to last, both included
+        public Builder takenBetween(LocalDate first, LocalDate last) {
+            if (Objects.isNull(first) || Objects.isNull(last) || first.isAfter(last))
+                throw new IllegalArgumentException(String.format("Not a range of days: %s to %s", first, last));
+
+            this.from = first;
+            this.to = last;
+            return this;
+        }
+
+        public Builder orderedBy(Order order) {
+            this.order = Objects.requireNonNull(order);
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit < 1) throw new IllegalArgumentException("Limit must be positive");
+
+            this.limit = limit;
+            return this;
+        }
+
+        public TreatmentQuery build() {
+            return new TreatmentQuery(this);
+        }
+    }
+}
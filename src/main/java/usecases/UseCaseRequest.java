@@ -1,28 +1,89 @@
 package usecases;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Objects;
 
-public abstract class UseCaseRequest <T extends UseCaseRequest> {
-    private Map<String, String> parameters = new HashMap<>();
+/*
+  Parameters sit in a fixed array indexed by the slots of the request's
+  schema. Typed values are parsed once, whoever asks first: the validator
+  or the use case. reset() lets a worker reuse one instance.
+*/
+public abstract class UseCaseRequest <T extends UseCaseRequest<T>> {
+    private static final Object MALFORMED = new Object();
+    private static final Object NUMBER = new Object();
 
-    protected String getParameter(String attribute) {
-        return parameters.get(attribute);
+    private final RequestSchema schema;
+    private final String[] parameters;
+    private final Object[] parsed;
+    private final long[] numbers;
+
+    protected UseCaseRequest(RequestSchema schema) {
+        this.schema = schema;
+        this.parameters = new String[schema.size()];
+        this.parsed = new Object[schema.size()];
+        this.numbers = new long[schema.size()];
+    }
+
+    public T reset() {
+        Arrays.fill(parameters, null);
+        Arrays.fill(parsed, null);
+        return self();
+    }
+
+    RequestSchema schema() {
+        return schema;
+    }
+
+    protected String getParameter(int slot) {
+        return parameters[slot];
     }
 
-    protected boolean isParameterMissing(String attribute) {
-        return Objects.isNull(getParameter(attribute));
+    protected boolean isParameterMissing(int slot) {
+        return Objects.isNull(parameters[slot]);
     }
 
-    protected T buildParameterAndReturnSelf(String parameter, String value) {
-        setParameter(parameter, value);
+    protected LocalDate getDateParameter(int slot) {
+        Object value = parsed[slot];
+        if (Objects.isNull(value)) {
+            value = orMalformed(Parsers.parseIsoDate(parameters[slot]));
+            parsed[slot] = value;
+        }
+        return value == MALFORMED ? null : (LocalDate) value;
+    }
+
+    protected long getLongParameter(int slot) {
+        if (Objects.isNull(parsed[slot])) {
+            long number = Parsers.parseLong(parameters[slot]);
+            parsed[slot] = number == Parsers.MALFORMED ? MALFORMED : NUMBER;
+            numbers[slot] = number;
+        }
+        return parsed[slot] == MALFORMED ? Parsers.MALFORMED : numbers[slot];
+    }
+
+    protected ChronoUnit getChronoUnitParameter(int slot) {
+        Object value = parsed[slot];
+        if (Objects.isNull(value)) {
+            value = orMalformed(Parsers.parseChronoUnit(parameters[slot]));
+            parsed[slot] = value;
+        }
+        return value == MALFORMED ? null : (ChronoUnit) value;
+    }
+
+    protected T buildParameterAndReturnSelf(int slot, String value) {
+        setParameter(slot, value);
         return self();
     }
 
     abstract protected T self();
 
-    private void setParameter(String parameter, String value) {
-        parameters.put(parameter, value);
+    private void setParameter(int slot, String value) {
+        parameters[slot] = value;
+        parsed[slot] = null;
+    }
+
+    private static Object orMalformed(Object value) {
+        return Objects.isNull(value) ? MALFORMED : value;
     }
 }
@@ -1,9 +1,6 @@
 package usecases;
 
-import java.util.List;
-
-public interface UseCaseValidator {
-    void validate(UseCaseRequest request);
-    boolean isValid();
-    List<String> errors();
+// checks a request and, when it is valid, turns it into what the use case works with
+public interface UseCaseValidator<T> {
+    ValidationResult<T> validate(UseCaseRequest<?> request);
 }
@@ -0,0 +1,31 @@
+package usecases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public final class ValidationContext {
+    private final UseCaseRequest<?> request;
+    private List<String> errors;
+
+    ValidationContext(UseCaseRequest<?> request) {
+        this.request = request;
+    }
+
+    UseCaseRequest<?> request() {
+        return request;
+    }
+
+    public void fail(String message, Object... args) {
+        if (Objects.isNull(errors)) errors = new ArrayList<>();
+        errors.add(String.format(message, args));
+    }
+
+    boolean hasFailed() {
+        return Objects.nonNull(errors);
+    }
+
+    <T> ValidationResult<T> result(T value) {
+        return hasFailed() ? ValidationResult.invalid(errors) : ValidationResult.valid(value);
+    }
+}
@@ -0,0 +1,37 @@
+package usecases;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public final class ValidationResult<T> {
+    private final T value;
+    private final List<String> errors;
+
+    private ValidationResult(T value, List<String> errors) {
+        this.value = value;
+        this.errors = errors;
+    }
+
+    public static <T> ValidationResult<T> valid(T value) {
+        return new ValidationResult<>(Objects.requireNonNull(value), Collections.emptyList());
+    }
+
+    static <T> ValidationResult<T> invalid(List<String> errors) {
+        return new ValidationResult<>(null, Collections.unmodifiableList(errors));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    // what the valid request stands for; null when it is invalid
+    public T getValue() {
+        return value;
+    }
+
+    // todo: List of attribute + its errors
+    public List<String> errors() {
+        return errors;
+    }
+}
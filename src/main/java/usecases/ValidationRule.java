@@ -1,19 +1,23 @@
 package usecases;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.function.Consumer;
+import java.util.Collections;
+import java.util.List;
 
-public class ValidationRule<T> implements Consumer<T> {
-    private Collection<Consumer<T>> checks = new ArrayList<>();
+public class ValidationRule implements AttributeCheck {
+    private List<AttributeCheck> checks = new ArrayList<>();
 
-    public ValidationRule<T> add(Consumer<T> check) {
+    public ValidationRule add(AttributeCheck check) {
         checks.add(check);
         return this;
     }
 
     @Override
-    public void accept(T t) {
-        checks.forEach(check -> check.accept(t));
+    public void check(ValidationContext context, int slot) {
+        checks.forEach(check -> check.check(context, slot));
+    }
+
+    List<AttributeCheck> checks() {
+        return Collections.unmodifiableList(checks);
     }
 }
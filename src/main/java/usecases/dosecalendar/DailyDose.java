@@ -0,0 +1,58 @@
+package usecases.dosecalendar;
+
+import entities.Drug;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// how much of a drug in one dose form all treatments active on a day take together
+public final class DailyDose {
+    private final LocalDate day;
+    private final Drug drug;
+    private final String form;
+    private final long quantity;
+
+    DailyDose(LocalDate day, Drug drug, String form, long quantity) {
+        this.day = day;
+        this.drug = drug;
+        this.form = form;
+        this.quantity = quantity;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Drug getDrug() {
+        return drug;
+    }
+
+    public String getForm() {
+        return form;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DailyDose)) return false;
+
+        DailyDose other = (DailyDose) obj;
+        return quantity == other.quantity &&
+                Objects.equals(day, other.day) &&
+                Objects.equals(drug.getId(), other.drug.getId()) &&
+                Objects.equals(form, other.form);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, drug.getId(), form, quantity);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{day='%s', drug='%s', form='%s', quantity='%d'}", day, drug.getId(), form, quantity);
+    }
+}
@@ -0,0 +1,84 @@
+package usecases.dosecalendar;
+
+import entities.Dosage;
+import entities.Treatment;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+  Daily quantities every drug is taken in, per dose form, across all the
+  treatments it was built from. Building reads every treatment once; a
+  range is then added up by one sweep over treatment starts and stops, and
+  doses are produced as the stream is read rather than as a day by drug
+  table. Treatments missing a drug, a dose or dates are left out.
+*/
+public final class DoseCalendar {
+    private final List<DoseSchedule> schedules;
+
+    private DoseCalendar(List<DoseSchedule> schedules) {
+        this.schedules = schedules;
+    }
+
+    public static DoseCalendar of(Iterable<Treatment> treatments) {
+        Map<String, DoseSchedule.Builder> builders = new TreeMap<>();
+
+        for (Treatment treatment : treatments) {
+            if (!isScheduled(treatment)) continue;
+
+            Dosage dosage = treatment.getDosage();
+            builders.computeIfAbsent(treatment.getDrug().getId(), id -> new DoseSchedule.Builder(treatment.getDrug()))
+                    .add(dosage.getDose().getForm(),
+                            Math.toIntExact(treatment.getStartsOn().toEpochDay()),
+                            Math.toIntExact(treatment.getStopsOn().toEpochDay() + 1),
+                            dosage.totalDailyDose());
+        }
+
+        List<DoseSchedule> schedules = new ArrayList<>(builders.size());
+        builders.values().forEach(builder -> schedules.add(builder.build()));
+        return new DoseCalendar(Collections.unmodifiableList(schedules));
+    }
+
+    // every day from first to last, both included, by drug id and form within a day
+    public Stream<DailyDose> byDay(LocalDate first, LocalDate last) {
+        return stream(new Sweep(schedules, toDay(first), toDay(last)));
+    }
+
+    /*
+      Every drug's days in turn, by drug id. Drugs are swept apart from each
+      other, so the stream splits at drug boundaries and parallel() on it
+      adds drugs up as fork/join tasks; each drug's sweep starts only when
+      the stream reaches that drug.
+    */
+    public Stream<DailyDose> byDrug(LocalDate first, LocalDate last) {
+        int from = toDay(first), to = toDay(last);
+        return schedules.stream()
+                .flatMap(schedule -> stream(new Sweep(Collections.singletonList(schedule), from, to)));
+    }
+
+    private static boolean isScheduled(Treatment treatment) {
+        return Objects.nonNull(treatment.getDrug()) &&
+                Objects.nonNull(treatment.getDosage()) &&
+                Objects.nonNull(treatment.getDosage().getDose()) &&
+                Objects.nonNull(treatment.getStartsOn()) &&
+                Objects.nonNull(treatment.getStopsOn());
+    }
+
+    private static int toDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static Stream<DailyDose> stream(Sweep sweep) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(sweep,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
@@ -0,0 +1,111 @@
+package usecases.dosecalendar;
+
+import entities.Drug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/*
+  One drug's treatments reduced to what the calendar adds up: a dose form,
+  the first day, the day after the last and the daily quantity, as epoch
+  days in parallel columns. Forms are numbered in name order.
+*/
+final class DoseSchedule {
+    private final Drug drug;
+    private final List<String> forms;
+    private final int[] form;
+    private final int[] start;
+    private final int[] end;
+    private final int[] quantity;
+    private final int size;
+
+    private DoseSchedule(Builder builder, List<String> forms, int[] form) {
+        this.drug = builder.drug;
+        this.forms = forms;
+        this.form = form;
+        this.start = builder.start;
+        this.end = builder.end;
+        this.quantity = builder.quantity;
+        this.size = builder.size;
+    }
+
+    Drug getDrug() {
+        return drug;
+    }
+
+    List<String> getForms() {
+        return forms;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int form(int row) {
+        return form[row];
+    }
+
+    int start(int row) {
+        return start[row];
+    }
+
+    int end(int row) {
+        return end[row];
+    }
+
+    int quantity(int row) {
+        return quantity[row];
+    }
+
+    static final class Builder {
+        private final Drug drug;
+        private final Map<String, Integer> forms = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        private int[] form = new int[4];
+        private int[] start = new int[4];
+        private int[] end = new int[4];
+        private int[] quantity = new int[4];
+        private int size;
+
+        Builder(Drug drug) {
+            this.drug = drug;
+        }
+
+        void add(String doseForm, int startDay, int endDay, int dailyQuantity) {
+            if (size == start.length) {
+                form = Arrays.copyOf(form, size * 2);
+                start = Arrays.copyOf(start, size * 2);
+                end = Arrays.copyOf(end, size * 2);
+                quantity = Arrays.copyOf(quantity, size * 2);
+            }
+
+            Integer formIndex = forms.get(doseForm);
+            if (Objects.isNull(formIndex)) {
+                formIndex = forms.size();
+                forms.put(doseForm, formIndex);
+            }
+
+            form[size] = formIndex;
+            start[size] = startDay;
+            end[size] = endDay;
+            quantity[size] = dailyQuantity;
+            size++;
+        }
+
+        // renumbers forms from first seen to name order
+        DoseSchedule build() {
+            int[] rank = new int[forms.size()];
+            int next = 0;
+            for (int seen : forms.values()) rank[seen] = next++;
+
+            int[] ranked = new int[size];
+            for (int row = 0; row < size; row++) ranked[row] = rank[form[row]];
+
+            return new DoseSchedule(this, new ArrayList<>(forms.keySet()), ranked);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package usecases.dosecalendar;
+
+import entities.Drug;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+  Walks the days of a range once. Every treatment becomes two events, its
+  daily quantity added on its first day and taken away on the day after its
+  last, sorted by day; between events the running totals do not change, so
+  a day costs the events on it plus the doses it yields, and days nothing
+  is taken on are skipped. Doses come out day by day, by drug and form.
+*/
+final class Sweep implements Iterator<DailyDose> {
+    private final Drug[] drugs;
+    private final String[] forms;
+    private final int[] eventSeries;
+    private final int[] eventDelta;
+    private final long[] events;
+    private final int to;
+
+    private final long[] totals;
+    private final BitSet active;
+    private int day;
+    private int next;
+    private Iterator<DailyDose> doses = Collections.emptyIterator();
+
+    Sweep(List<DoseSchedule> schedules, int from, int to) {
+        this.to = to;
+
+        int series = 0, rows = 0;
+        for (DoseSchedule schedule : schedules) {
+            series += schedule.getForms().size();
+            rows += schedule.size();
+        }
+
+        drugs = new Drug[series];
+        forms = new String[series];
+        eventSeries = new int[2 * rows];
+        eventDelta = new int[2 * rows];
+        long[] events = new long[2 * rows];
+
+        int first = 0, count = 0;
+        for (DoseSchedule schedule : schedules) {
+            List<String> drugForms = schedule.getForms();
+            for (int f = 0; f < drugForms.size(); f++) {
+                drugs[first + f] = schedule.getDrug();
+                forms[first + f] = drugForms.get(f);
+            }
+
+            for (int row = 0; row < schedule.size(); row++) {
+                // clipped to the range, so no event falls before it and none after the day following it
+                int start = Math.max(schedule.start(row), from);
+                int end = Math.min(schedule.end(row), to + 1);
+                if (start >= end) continue;
+
+                count = event(events, count, start, first + schedule.form(row), schedule.quantity(row));
+                count = event(events, count, end, first + schedule.form(row), -schedule.quantity(row));
+            }
+            first += drugForms.size();
+        }
+
+        this.events = Arrays.copyOf(events, count);
+        Arrays.sort(this.events);
+
+        totals = new long[series];
+        active = new BitSet(series);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!doses.hasNext()) {
+            if (active.isEmpty()) {
+                if (next == events.length) return false;
+                day = dayOf(next);
+            }
+            if (day > to) return false;
+
+            while (next < events.length && dayOf(next) == day) apply((int) events[next++]);
+            doses = dosesOn(day++);
+        }
+        return true;
+    }
+
+    @Override
+    public DailyDose next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return doses.next();
+    }
+
+    // the day in the high half keeps events in day order; the low half says which event it is
+    private int event(long[] events, int count, int day, int series, int delta) {
+        eventSeries[count] = series;
+        eventDelta[count] = delta;
+        events[count] = ((long) day << 32) | count;
+        return count + 1;
+    }
+
+    private int dayOf(int event) {
+        return (int) (events[event] >> 32);
+    }
+
+    private void apply(int event) {
+        int series = eventSeries[event];
+        totals[series] += eventDelta[event];
+
+        if (totals[series] == 0) active.clear(series);
+        else active.set(series);
+    }
+
+    private Iterator<DailyDose> dosesOn(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+
+        List<DailyDose> doses = new ArrayList<>(active.cardinality());
+        for (int series = active.nextSetBit(0); series >= 0; series = active.nextSetBit(series + 1)) {
+            doses.add(new DailyDose(date, drugs[series], forms[series], totals[series]));
+        }
+        return doses.iterator();
+    }
+}
@@ -0,0 +1,87 @@
+package usecases.prescribetreatment;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import usecases.AsyncDosageGateway;
+import usecases.AsyncDrugGateway;
+import usecases.AsyncGateways;
+import usecases.AsyncTreatmentGateway;
+import usecases.DosageGateway;
+import usecases.DrugGateway;
+import usecases.TreatmentGateway;
+import usecases.UseCaseValidator;
+import usecases.ValidationResult;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/*
+  Prescribes like PrescribeTreatmentUseCase, but looks the drug and the
+  dosage up at the same time and does not block the caller. The request is
+  read before prescribe() returns, so it can be reused right away.
+*/
+public class AsyncPrescribeTreatmentUseCase {
+    private final AsyncTreatmentGateway treatmentGateway;
+    private final AsyncDrugGateway drugGateway;
+    private final AsyncDosageGateway dosageGateway;
+    private final UseCaseValidator<PrescribeTreatmentCommand> validator;
+
+    public AsyncPrescribeTreatmentUseCase(AsyncTreatmentGateway treatmentGateway,
+                                          AsyncDrugGateway drugGateway,
+                                          AsyncDosageGateway dosageGateway,
+                                          UseCaseValidator<PrescribeTreatmentCommand> validator) {
+        this.treatmentGateway = treatmentGateway;
+        this.drugGateway = drugGateway;
+        this.dosageGateway = dosageGateway;
+        this.validator = validator;
+    }
+
+    // sync gateways whose calls run on the executor
+    public AsyncPrescribeTreatmentUseCase(TreatmentGateway treatmentGateway,
+                                          DrugGateway drugGateway,
+                                          DosageGateway dosageGateway,
+                                          UseCaseValidator<PrescribeTreatmentCommand> validator,
+                                          Executor executor) {
+        this(AsyncGateways.async(treatmentGateway, executor),
+                AsyncGateways.async(drugGateway, executor),
+                AsyncGateways.async(dosageGateway, executor),
+                validator);
+    }
+
+    // completes exceptionally with a PrescribeTreatmentException when the treatment is rejected
+    public CompletableFuture<Treatment> prescribe(PrescribeTreatmentRequest request) {
+        return tryPrescribe(request).thenApply(result -> {
+            if (result.isSuccess()) return result.getTreatment();
+            throw new PrescribeTreatmentException(result.getReason(), result.getError());
+        });
+    }
+
+    public CompletableFuture<PrescribeTreatmentResult> tryPrescribe(PrescribeTreatmentRequest request) {
+        ValidationResult<PrescribeTreatmentCommand> validation = validator.validate(request);
+        if (!validation.isValid()) return CompletableFuture.completedFuture(PrescribeTreatmentUseCase.invalid(validation));
+
+        PrescribeTreatmentCommand command = validation.getValue();
+
+        CompletableFuture<Drug> drug = drugGateway.findById(command.getDrugId());
+        CompletableFuture<Dosage> dosage = dosageGateway.findById(command.getDosageId());
+
+        return drug.thenCombine(dosage, (foundDrug, foundDosage) -> {
+            if (Objects.isNull(foundDrug)) return PrescribeTreatmentUseCase.noDrugFound(command);
+            if (Objects.isNull(foundDosage)) return PrescribeTreatmentUseCase.noDosageFound(command);
+
+            return PrescribeTreatmentResult.success(
+                    PrescribeTreatmentUseCase.createTreatment(command, foundDrug, foundDosage));
+        }).thenCompose(this::save);
+    }
+
+    private CompletableFuture<PrescribeTreatmentResult> save(PrescribeTreatmentResult created) {
+        if (!created.isSuccess()) return CompletableFuture.completedFuture(created);
+
+        Treatment treatment = created.getTreatment();
+        return treatmentGateway.saveIfNoOverlap(treatment).thenApply(saved -> saved
+                ? created
+                : PrescribeTreatmentUseCase.overlaps(treatment));
+    }
+}
@@ -0,0 +1,53 @@
+package usecases.prescribetreatment;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public final class PrescribeTreatmentCommand {
+    private final LocalDate startDate;
+    private final int periodAmount;
+    private final ChronoUnit periodUnit;
+    private final String drugId;
+    private final String dosageId;
+    private final String patientId;
+
+    PrescribeTreatmentCommand(LocalDate startDate, int periodAmount, ChronoUnit periodUnit,
+                              String drugId, String dosageId, String patientId) {
+        this.startDate = startDate;
+        this.periodAmount = periodAmount;
+        this.periodUnit = periodUnit;
+        this.drugId = drugId;
+        this.dosageId = dosageId;
+        this.patientId = patientId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int getPeriodAmount() {
+        return periodAmount;
+    }
+
+    public ChronoUnit getPeriodUnit() {
+        return periodUnit;
+    }
+
+    public String getDrugId() {
+        return drugId;
+    }
+
+    public String getDosageId() {
+        return dosageId;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{startDate='%s', period='%d %s', drugId='%s', dosageId='%s', patientId='%s'}",
+                this.getClass().getName(), startDate, periodAmount, periodUnit, drugId, dosageId, patientId);
+    }
+}
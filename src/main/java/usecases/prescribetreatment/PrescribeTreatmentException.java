@@ -1,12 +1,29 @@
 package usecases.prescribetreatment;
 
 public class PrescribeTreatmentException extends RuntimeException {
+    private final RejectionReason reason;
 
     public PrescribeTreatmentException() {
         super();
+        this.reason = null;
     }
 
     public PrescribeTreatmentException(String message) {
         super(message);
+        this.reason = null;
+    }
+
+    public PrescribeTreatmentException(RejectionReason reason) {
+        super();
+        this.reason = reason;
+    }
+
+    public PrescribeTreatmentException(RejectionReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
     }
 }
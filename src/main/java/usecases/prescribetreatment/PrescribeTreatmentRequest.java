@@ -1,39 +1,77 @@
 package usecases.prescribetreatment;
 
+import usecases.Parsers;
+import usecases.RequestSchema;
 import usecases.UseCaseRequest;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
 public class PrescribeTreatmentRequest extends UseCaseRequest<PrescribeTreatmentRequest> {
+    static final RequestSchema SCHEMA =
+            RequestSchema.of("startDate", "periodAmount", "periodUnit", "drugId", "dosageId", "patientId");
+
+    private static final int START_DATE = SCHEMA.slot("startDate");
+    private static final int PERIOD_AMOUNT = SCHEMA.slot("periodAmount");
+    private static final int PERIOD_UNIT = SCHEMA.slot("periodUnit");
+    private static final int DRUG_ID = SCHEMA.slot("drugId");
+    private static final int DOSAGE_ID = SCHEMA.slot("dosageId");
+    private static final int PATIENT_ID = SCHEMA.slot("patientId");
+
+    public PrescribeTreatmentRequest() {
+        super(SCHEMA);
+    }
 
     public PrescribeTreatmentRequest addStartDate(String value) {
-        return buildParameterAndReturnSelf("startDate", value);
+        return buildParameterAndReturnSelf(START_DATE, value);
     }
     public PrescribeTreatmentRequest addPeriodAmount(String value) {
-        return buildParameterAndReturnSelf("periodAmount", value);
+        return buildParameterAndReturnSelf(PERIOD_AMOUNT, value);
     }
     public PrescribeTreatmentRequest addPeriodUnit(String value) {
-        return buildParameterAndReturnSelf("periodUnit", value);
+        return buildParameterAndReturnSelf(PERIOD_UNIT, value);
     }
     public PrescribeTreatmentRequest addDrugId(String value) {
-        return buildParameterAndReturnSelf("drugId", value);
+        return buildParameterAndReturnSelf(DRUG_ID, value);
     }
     public PrescribeTreatmentRequest addDosageId(String value) {
-        return buildParameterAndReturnSelf("dosageId", value);
+        return buildParameterAndReturnSelf(DOSAGE_ID, value);
+    }
+    // optional: without it the treatment belongs to no patient in particular
+    public PrescribeTreatmentRequest addPatientId(String value) {
+        return buildParameterAndReturnSelf(PATIENT_ID, value);
     }
 
     String startDate() {
-        return getParameter("startDate");
+        return getParameter(START_DATE);
     }
     String periodAmount() {
-        return getParameter("periodAmount");
+        return getParameter(PERIOD_AMOUNT);
     }
     String periodUnit() {
-        return getParameter("periodUnit");
+        return getParameter(PERIOD_UNIT);
     }
     String drugId() {
-        return getParameter("drugId");
+        return getParameter(DRUG_ID);
     }
     String dosageId() {
-        return getParameter("dosageId");
+        return getParameter(DOSAGE_ID);
+    }
+    String patientId() {
+        return getParameter(PATIENT_ID);
+    }
+
+    // typed values reuse what the validator has already parsed; null when any of them is malformed
+    PrescribeTreatmentCommand toCommand() {
+        LocalDate startDate = getDateParameter(START_DATE);
+        long periodAmount = getLongParameter(PERIOD_AMOUNT);
+        ChronoUnit periodUnit = getChronoUnitParameter(PERIOD_UNIT);
+
+        if (Objects.isNull(startDate) || Objects.isNull(periodUnit)) return null;
+        if (periodAmount == Parsers.MALFORMED || !Parsers.isInt(periodAmount)) return null;
+
+        return new PrescribeTreatmentCommand(startDate, (int) periodAmount, periodUnit, drugId(), dosageId(), patientId());
     }
 
     @Override
@@ -0,0 +1,110 @@
+package usecases.prescribetreatment;
+
+import entities.Treatment;
+
+import java.util.Objects;
+
+/*
+  Either a Success or a Failure; no other subclasses can exist. A failure
+  keeps its message template and arguments and formats the detail only
+  when somebody reads it.
+*/
+public abstract class PrescribeTreatmentResult {
+
+    private PrescribeTreatmentResult() {}
+
+    static PrescribeTreatmentResult success(Treatment treatment) {
+        return new Success(treatment);
+    }
+
+    static PrescribeTreatmentResult failure(RejectionReason reason, String detail, Object... args) {
+        return new Failure(reason, detail, args);
+    }
+
+    public abstract boolean isSuccess();
+
+    // null for a failure
+    public abstract Treatment getTreatment();
+
+    // null for a success
+    public abstract RejectionReason getReason();
+
+    // null for a success
+    public abstract String getError();
+
+    public static final class Success extends PrescribeTreatmentResult {
+        private final Treatment treatment;
+
+        private Success(Treatment treatment) {
+            this.treatment = treatment;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public Treatment getTreatment() {
+            return treatment;
+        }
+
+        @Override
+        public RejectionReason getReason() {
+            return null;
+        }
+
+        @Override
+        public String getError() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{treatment='%s'}", this.getClass().getName(), treatment.getId());
+        }
+    }
+
+    public static final class Failure extends PrescribeTreatmentResult {
+        private final RejectionReason reason;
+        private final String template;
+        private final Object[] args;
+        private volatile String detail;
+
+        private Failure(RejectionReason reason, String template, Object[] args) {
+            this.reason = reason;
+            this.template = template;
+            this.args = args;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        @Override
+        public Treatment getTreatment() {
+            return null;
+        }
+
+        @Override
+        public RejectionReason getReason() {
+            return reason;
+        }
+
+        @Override
+        public String getError() {
+            String formatted = detail;
+            if (Objects.isNull(formatted)) {
+                formatted = args.length == 0 ? template : String.format(template, args);
+                detail = formatted;
+            }
+            return formatted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{reason='%s', error='%s'}", this.getClass().getName(), reason, getError());
+        }
+    }
+}
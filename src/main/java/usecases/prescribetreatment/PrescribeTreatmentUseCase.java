@@ -2,27 +2,30 @@ package usecases.prescribetreatment;
 
 import entities.Dosage;
 import entities.Drug;
+import entities.Entity;
 import entities.Treatment;
 import entities.TreatmentPeriod;
 import usecases.DosageGateway;
 import usecases.DrugGateway;
 import usecases.TreatmentGateway;
 import usecases.UseCaseValidator;
+import usecases.ValidationResult;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class PrescribeTreatmentUseCase {
     private final TreatmentGateway treatmentGateway;
     private final DrugGateway drugGateway;
     private final DosageGateway dosageGateway;
-    private final UseCaseValidator validator;
+    private final UseCaseValidator<PrescribeTreatmentCommand> validator;
 
     public PrescribeTreatmentUseCase(TreatmentGateway treatmentGateway,
                                      DrugGateway drugGateway,
                                      DosageGateway dosageGateway,
-                                     UseCaseValidator validator) {
+                                     UseCaseValidator<PrescribeTreatmentCommand> validator) {
         this.treatmentGateway = treatmentGateway;
         this.drugGateway = drugGateway;
         this.dosageGateway = dosageGateway;
@@ -30,44 +33,145 @@ public class PrescribeTreatmentUseCase {
     }
 
     public Treatment prescribe(PrescribeTreatmentRequest request) {
-        validator.validate(request);
-        if (!validator.isValid()) throw new PrescribeTreatmentException();
+        PrescribeTreatmentResult result = tryPrescribe(request);
+        if (result.isSuccess()) return result.getTreatment();
 
-        Drug drug = drugGateway.findById(request.drugId());
+        throw new PrescribeTreatmentException(result.getReason(), result.getError());
+    }
+
+    // rejections come back as a failure instead of being thrown
+    public PrescribeTreatmentResult tryPrescribe(PrescribeTreatmentRequest request) {
+        ValidationResult<PrescribeTreatmentCommand> validation = validator.validate(request);
+        if (!validation.isValid()) return invalid(validation);
+
+        PrescribeTreatmentCommand command = validation.getValue();
 
-        if (Objects.isNull(drug))
-            throw new PrescribeTreatmentException(
-                    String.format("No drug found with '%s' id", request.drugId()));
+        Drug drug = drugGateway.findById(command.getDrugId());
+        if (Objects.isNull(drug)) return noDrugFound(command);
 
-        Dosage dosage = dosageGateway.findById(request.dosageId());
-        if (Objects.isNull(dosage))
-            throw new PrescribeTreatmentException(
-                    String.format("No dosage found with '%s' id", request.dosageId()));
+        Dosage dosage = dosageGateway.findById(command.getDosageId());
+        if (Objects.isNull(dosage)) return noDosageFound(command);
 
+        Treatment treatment = createTreatment(command, drug, dosage);
+
+        if (!treatmentGateway.saveIfNoOverlap(treatment)) return overlaps(treatment);
+
+        return PrescribeTreatmentResult.success(treatment);
+    }
+
+    public List<PrescribeTreatmentResult> prescribeAll(List<PrescribeTreatmentRequest> requests) {
+        PrescribeTreatmentResult[] results = new PrescribeTreatmentResult[requests.size()];
+        PrescribeTreatmentCommand[] commands = new PrescribeTreatmentCommand[requests.size()];
+
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ValidationResult<PrescribeTreatmentCommand> validation = validator.validate(requests.get(i));
+            if (validation.isValid()) {
+                commands[i] = validation.getValue();
+                valid.add(i);
+            } else {
+                results[i] = invalid(validation);
+            }
+        }
+
+        Map<String, Drug> drugs = byId(drugGateway.findByIds(distinct(commands, valid, PrescribeTreatmentCommand::getDrugId)));
+        Map<String, Dosage> dosages = byId(dosageGateway.findByIds(distinct(commands, valid, PrescribeTreatmentCommand::getDosageId)));
+
+        Map<List<String>, NavigableMap<LocalDate, Treatment>> acceptedByDrug = new HashMap<>();
+        List<Treatment> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+
+        for (int i : valid) {
+            PrescribeTreatmentCommand command = commands[i];
+
+            Drug drug = drugs.get(command.getDrugId());
+            if (Objects.isNull(drug)) {
+                results[i] = noDrugFound(command);
+                continue;
+            }
+
+            Dosage dosage = dosages.get(command.getDosageId());
+            if (Objects.isNull(dosage)) {
+                results[i] = noDosageFound(command);
+                continue;
+            }
+
+            Treatment treatment = createTreatment(command, drug, dosage);
+
+            // accepted treatments of a patient's drug never overlap each other, so only the closest earlier start can clash
+            NavigableMap<LocalDate, Treatment> drugTreatments = acceptedByDrug.computeIfAbsent(
+                    Arrays.asList(command.getPatientId(), drug.getId()), owner -> new TreeMap<>());
+            Map.Entry<LocalDate, Treatment> closest = drugTreatments.floorEntry(treatment.getStopsOn());
+            if (Objects.nonNull(closest) && closest.getValue().doesOverlap(treatment)) {
+                results[i] = overlaps(treatment);
+                continue;
+            }
+
+            drugTreatments.put(treatment.getStartsOn(), treatment);
+            accepted.add(treatment);
+            acceptedPositions.add(i);
+        }
+
+        Set<Treatment> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+        saved.addAll(treatmentGateway.saveAll(accepted));
+
+        for (int k = 0; k < accepted.size(); k++) {
+            Treatment treatment = accepted.get(k);
+            results[acceptedPositions.get(k)] = saved.contains(treatment)
+                    ? PrescribeTreatmentResult.success(treatment)
+                    : overlaps(treatment);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    static Treatment createTreatment(PrescribeTreatmentCommand command, Drug drug, Dosage dosage) {
         Treatment treatment = new Treatment();
 
+        treatment.setPatientId(command.getPatientId());
         treatment.setDrug(drug);
         treatment.setDosage(dosage);
 
-        LocalDate startsOn = LocalDate.parse(request.startDate());
+        LocalDate startsOn = command.getStartDate();
         treatment.setStartsOn(startsOn);
 
-        TreatmentPeriod period = new TreatmentPeriod(
-                Integer.parseInt(request.periodAmount()),
-                ChronoUnit.valueOf(request.periodUnit().toUpperCase())
-        );
+        TreatmentPeriod period = new TreatmentPeriod(command.getPeriodAmount(), command.getPeriodUnit());
 
         treatment.setPeriod(period);
         treatment.setStopsOn(period.calcEnd(startsOn));
 
-        if (treatmentGateway.doesTreatmentExist(treatment))
-            throw new PrescribeTreatmentException(String.format(
-                    "The treatment that is being creating overlaps with the already prescribed drug: start date %s end date %s",
-                    treatment.getStartsOn(), treatment.getStopsOn()));
+        return treatment;
+    }
+
+    private static Set<String> distinct(PrescribeTreatmentCommand[] commands,
+                                        List<Integer> positions,
+                                        Function<PrescribeTreatmentCommand, String> attribute) {
+        Set<String> ids = new LinkedHashSet<>();
+        positions.forEach(i -> ids.add(attribute.apply(commands[i])));
+        return ids;
+    }
 
-        treatmentGateway.save(treatment);
+    private static <T extends Entity> Map<String, T> byId(List<T> entities) {
+        return entities.stream().collect(Collectors.toMap(Entity::getId, Function.identity(), (one, another) -> one));
+    }
 
-        return treatment;
+    static PrescribeTreatmentResult invalid(ValidationResult<?> validation) {
+        return PrescribeTreatmentResult.failure(RejectionReason.VALIDATION, String.join("; ", validation.errors()));
     }
-}
 
+    static PrescribeTreatmentResult noDrugFound(PrescribeTreatmentCommand command) {
+        return PrescribeTreatmentResult.failure(RejectionReason.MISSING_DRUG,
+                "No drug found with '%s' id", command.getDrugId());
+    }
+
+    static PrescribeTreatmentResult noDosageFound(PrescribeTreatmentCommand command) {
+        return PrescribeTreatmentResult.failure(RejectionReason.MISSING_DOSAGE,
+                "No dosage found with '%s' id", command.getDosageId());
+    }
+
+    static PrescribeTreatmentResult overlaps(Treatment treatment) {
+        return PrescribeTreatmentResult.failure(RejectionReason.OVERLAP,
+                "The treatment that is being creating overlaps with the already prescribed drug: start date %s end date %s",
+                treatment.getStartsOn(), treatment.getStopsOn());
+    }
+}
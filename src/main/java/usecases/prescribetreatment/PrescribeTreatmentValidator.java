@@ -1,11 +1,20 @@
 package usecases.prescribetreatment;
 
 import usecases.BaseUseCaseValidator;
+import usecases.UseCaseRequest;
+import usecases.ValidationContext;
 import usecases.ValidationRule;
 
-import java.util.function.Consumer;
+import entities.TreatmentPeriod;
 
-class PrescribeTreatmentValidator extends BaseUseCaseValidator {
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class PrescribeTreatmentValidator extends BaseUseCaseValidator<PrescribeTreatmentCommand> {
+    public PrescribeTreatmentValidator() {
+        super(PrescribeTreatmentRequest.SCHEMA);
+    }
 
     @Override
     protected void fillRequiredAttributes() {
@@ -18,20 +27,41 @@ class PrescribeTreatmentValidator extends BaseUseCaseValidator {
 
     @Override
     protected void initializeRules() {
-        Consumer<String> starDateRule = new ValidationRule<String>()
+        ValidationRule starDateRule = new ValidationRule()
                 .add(this::requireNonEmpty)
                 .add(this::checkDateFormat);
 
-        Consumer<String> periodAmountRule = new ValidationRule<String>()
+        ValidationRule periodAmountRule = new ValidationRule()
                 .add(this::requireNonEmpty)
                 .add(this::checkIntegerFormat)
                 .add(this::requirePositiveNumber)
                 .add(this::requireNonZero);
 
+        ValidationRule periodUnitRule = new ValidationRule()
+                .add(this::requireNonEmpty)
+                .add(this::checkChronoUnitFormat);
+
         addRule("startDate", starDateRule);
         addRule("periodAmount", periodAmountRule);
-        addRule("periodUnit", this::requireNonEmpty);
+        addRule("periodUnit", periodUnitRule);
         addRule("drugId", this::requireNonEmpty);
         addRule("dosageId", this::requireNonEmpty);
     }
+
+    @Override
+    protected PrescribeTreatmentCommand build(UseCaseRequest<?> request, ValidationContext context) {
+        PrescribeTreatmentCommand command = ((PrescribeTreatmentRequest) request).toCommand();
+        if (Objects.isNull(command)) return null;
+
+        try {
+            LocalDate end = new TreatmentPeriod(command.getPeriodAmount(), command.getPeriodUnit()).calcEnd(command.getStartDate());
+            // the stores keep a treatment's days as int epoch days
+            Math.toIntExact(end.toEpochDay());
+        } catch (DateTimeException | ArithmeticException e) {
+            context.fail("'Treatment Period' must end on a date: '%d %s' from '%s'", command.getPeriodAmount(),
+                    command.getPeriodUnit().name().toLowerCase(), command.getStartDate());
+            return null;
+        }
+        return command;
+    }
 }
@@ -0,0 +1,8 @@
+package usecases.prescribetreatment;
+
+public enum RejectionReason {
+    VALIDATION,
+    MISSING_DRUG,
+    MISSING_DOSAGE,
+    OVERLAP
+}
@@ -0,0 +1,66 @@
+import doubles.TreatmentBuilder;
+import doubles.TreatmentInMemoryGateway;
+import entities.Drug;
+import gateways.IndexedTreatmentGateway;
+import org.junit.Test;
+import usecases.GetDrugDemandUseCase;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static doubles.TreatmentBuilder.EPOCH;
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.assertEquals;
+
+public class GetDrugDemandUseCaseTest {
+
+    private IndexedTreatmentGateway treatmentGateway = new IndexedTreatmentGateway();
+    private TreatmentInMemoryGateway countingGateway = new TreatmentInMemoryGateway();
+
+    private GetDrugDemandUseCase useCase = new GetDrugDemandUseCase(treatmentGateway);
+    private GetDrugDemandUseCase countingUseCase = new GetDrugDemandUseCase(countingGateway);
+
+    @Test
+    public void multipliesDailyDoseByDaysInRange() {
+        Drug drug = drug("drug#1");
+        treatmentGateway.save(treatment(drug).forDays(10, 9).dosed("pill", 3, 2).build());
+
+        assertEquals(3 * 2 * 10, useCase.getDemand(drug.getId(), EPOCH, EPOCH.plusYears(1)));
+        assertEquals(3 * 2 * 5, useCase.getDemand(drug.getId(), EPOCH.plusDays(15), EPOCH.plusDays(30)));
+        assertEquals(0, useCase.getDemand("unknown", EPOCH, EPOCH.plusYears(1)));
+    }
+
+    @Test
+    public void answersLikeCountingEveryTreatment() {
+        Random random = new Random(3);
+        Drug[] drugs = {drug("drug#1"), drug("drug#2"), drug("drug#3")};
+
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(700);
+            TreatmentBuilder treatment = treatment(drugs[random.nextInt(3)])
+                    .dosed("pill", 1 + random.nextInt(4), 1 + random.nextInt(3))
+                    .forDays(start, random.nextInt(60));
+            treatmentGateway.save(treatment.build());
+            countingGateway.save(treatment.build());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate first = EPOCH.plusDays(random.nextInt(800));
+            LocalDate last = first.plusDays(random.nextInt(200));
+            String drugId = drugs[random.nextInt(3)].getId();
+
+            assertEquals(countingUseCase.getDemand(drugId, first, last), useCase.getDemand(drugId, first, last));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRangeEndingBeforeItStarts() {
+        useCase.getDemand("drug#1", EPOCH, EPOCH.minusDays(1));
+    }
+
+    private static Drug drug(String id) {
+        Drug drug = new Drug("Arsen Alb");
+        drug.setId(id);
+        return drug;
+    }
+}
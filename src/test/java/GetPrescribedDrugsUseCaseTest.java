@@ -1,4 +1,3 @@
-import doubles.AlwaysValidUseCaseValidatorStub;
 import doubles.DosageInMemoryGateway;
 import doubles.DrugInMemoryGateway;
 import doubles.TreatmentInMemoryGateway;
@@ -11,14 +10,17 @@ import org.junit.Test;
 import usecases.*;
 import usecases.prescribetreatment.PrescribeTreatmentRequest;
 import usecases.prescribetreatment.PrescribeTreatmentUseCase;
+import usecases.prescribetreatment.PrescribeTreatmentValidator;
 
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class GetPrescribedDrugsUseCaseTest {
@@ -26,13 +28,13 @@ public class GetPrescribedDrugsUseCaseTest {
     private TreatmentGateway treatmentGateway = new TreatmentInMemoryGateway();
     //todo: set up gateways through injection
     private DrugGateway drugGateway = new DrugInMemoryGateway((TreatmentInMemoryGateway) treatmentGateway);
-    private DosageGateway dosageGateway = new DosageInMemoryGateway();
+    private DosageGateway dosageGateway = new DosageInMemoryGateway((TreatmentInMemoryGateway) treatmentGateway);
 
     private GetPrescribedDrugsUseCase useCase;
 
     //todo: set up use case through injection/setting up a context
     private PrescribeTreatmentUseCase prescribeTreatmentUseCase = new PrescribeTreatmentUseCase(
-            treatmentGateway, drugGateway, dosageGateway, new AlwaysValidUseCaseValidatorStub());
+            treatmentGateway, drugGateway, dosageGateway, new PrescribeTreatmentValidator());
 
     @Before
     public void setUp() {
@@ -66,6 +68,55 @@ public class GetPrescribedDrugsUseCaseTest {
         assertEquals(prescribed, drugs);
     }
 
+    @Test
+    public void pagesThroughDistinctPrescribedDrugs() {
+        givenNonPrescribedDrug();
+        List<Drug> prescribed = givenPrescribedDrugs("Arsen Alb 1", "Arsen Alb 2", "Arsen Alb 3");
+        givenPrescribedAgain(prescribed.get(0));
+
+        Page<Drug> first = useCase.getPrescribedDrugs(null, 2);
+        Page<Drug> second = useCase.getPrescribedDrugs(first.getNextCursor(), 2);
+
+        assertEquals(prescribed.subList(0, 2), first.getItems());
+        assertTrue(first.hasNext());
+        assertEquals(prescribed.subList(2, 3), second.getItems());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void streamsDistinctPrescribedDrugsPageByPage() {
+        List<Drug> prescribed = givenPrescribedDrugs("Arsen Alb 1", "Arsen Alb 2", "Arsen Alb 3");
+        givenPrescribedAgain(prescribed.get(2));
+
+        assertEquals(prescribed, useCase.streamPrescribedDrugs(1).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void largestPageHoldsEveryDrug() {
+        List<Drug> prescribed = givenPrescribedDrugs("Arsen Alb 1", "Arsen Alb 2");
+
+        Page<Drug> page = useCase.getPrescribedDrugs(null, Integer.MAX_VALUE);
+
+        assertEquals(prescribed, page.getItems());
+        assertFalse(page.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedCursor() {
+        useCase.getPrescribedDrugs("not a cursor!", 2);
+    }
+
+    @Test
+    public void returnsDosagesOfAPageOfDrugsAtOnce() {
+        List<Drug> prescribed = givenPrescribedDrugs("Arsen Alb 1", "Arsen Alb 2");
+        givenPrescribedAgain(prescribed.get(0));
+
+        Map<String, List<Dosage>> dosages = useCase.getDrugDosages(useCase.getPrescribedDrugs(null, 2).getItems());
+
+        assertEquals(2, dosages.get(prescribed.get(0).getId()).size());
+        assertEquals(1, dosages.get(prescribed.get(1).getId()).size());
+    }
+
     @Ignore
     @Test
     public void returnsDrugDosageByTreatmentId() {
@@ -94,6 +145,19 @@ public class GetPrescribedDrugsUseCaseTest {
         assertEquals(2, d.getDailyIntakeAmount());
     }
 
+    private void givenPrescribedAgain(Drug drug) {
+        Dosage dosage = new Dosage();
+        dosageGateway.save(dosage);
+
+        prescribeTreatmentUseCase.prescribe(
+                new PrescribeTreatmentRequest()
+                        .addDrugId(drug.getId())
+                        .addDosageId(dosage.getId())
+                        .addStartDate(LocalDate.now().plusYears(1).toString())
+                        .addPeriodAmount("1")
+                        .addPeriodUnit("Months"));
+    }
+
     private Drug givenNonPrescribedDrug() {
         Drug nonPrescribed = new Drug("Vocara");
         drugGateway.save(nonPrescribed);
@@ -1,18 +1,52 @@
 package doubles;
 
 import entities.Dosage;
+import entities.Treatment;
 import usecases.DosageGateway;
+import usecases.TreatmentQuery;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class DosageInMemoryGateway extends InMemoryGateway<Dosage> implements DosageGateway {
+
+    private TreatmentInMemoryGateway treatmentGateway = new TreatmentInMemoryGateway();
+
+    public DosageInMemoryGateway() {}
+
+    public DosageInMemoryGateway(TreatmentInMemoryGateway treatmentGateway) {
+        this.treatmentGateway = treatmentGateway;
+    }
+
+    // the treatment is looked up by id, as the store does, instead of scanning every dosage
     public Dosage findDrugDosageByTreatmentId(String drugId, String treatmentId) {
-        List<Dosage> dosages = findAll();
-        Optional<Dosage> result = dosages.stream()
-                .filter(d -> d.getTreatmentId().equals(treatmentId))
-                .findFirst();
-        return result.get();
+        TreatmentQuery.Builder query = TreatmentQuery.treatments().withId(treatmentId);
+        if (Objects.nonNull(drugId)) query.ofDrug(drugId);
+
+        return treatmentGateway.findTreatments(query.build()).stream()
+                .map(Treatment::getDosage)
+                .filter(Objects::nonNull)
+                .map(dosage -> findById(dosage.getId()))
+                .findFirst()
+                .orElse(null);
     }
-}
 
+    @Override
+    public Map<String, List<Dosage>> findDosagesByDrugIds(Collection<String> drugIds) {
+        Map<String, List<Dosage>> dosages = new LinkedHashMap<>();
+        for (String drugId : drugIds) {
+            List<String> dosageIds = treatmentGateway.findTreatments(TreatmentQuery.treatments().ofDrug(drugId).build()).stream()
+                    .filter(t -> Objects.nonNull(t.getDosage()))
+                    .map(Treatment::getDosage)
+                    .map(Dosage::getId)
+                    .distinct()
+                    .collect(Collectors.toList());
+            dosages.put(drugId, findByIds(dosageIds));
+        }
+        return dosages;
+    }
+}
@@ -3,10 +3,11 @@ package doubles;
 import entities.Drug;
 import entities.Treatment;
 import usecases.DrugGateway;
+import usecases.TreatmentQuery;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 public class DrugInMemoryGateway extends InMemoryGateway<Drug> implements DrugGateway {
 
@@ -20,10 +21,24 @@ public class DrugInMemoryGateway extends InMemoryGateway<Drug> implements DrugGa
 
     @Override
     public List<Drug> findPrescribedDrugs() {
-        return treatmentGateway.findAll()
-                .stream()
-                .map(Treatment::getDrug)
-                .sorted(Comparator.comparing(Drug::getId))
-                .collect(Collectors.toList());
+        return findPrescribedDrugs(null, Integer.MAX_VALUE);
+    }
+
+    /*
+      Distinct drugs after an id are not a treatment query, so this one stays a
+      scan here; the stores answer it from their drug index. It keeps only the
+      smallest ids seen so far instead of sorting every treatment's drug.
+    */
+    @Override
+    public List<Drug> findPrescribedDrugs(String afterDrugId, int limit) {
+        TreeMap<String, Drug> page = new TreeMap<>();
+        for (Treatment treatment : treatmentGateway.findTreatments(TreatmentQuery.treatments().build())) {
+            Drug drug = treatment.getDrug();
+            if (afterDrugId != null && drug.getId().compareTo(afterDrugId) <= 0) continue;
+
+            page.put(drug.getId(), drug);
+            if (page.size() > limit) page.pollLastEntry();
+        }
+        return new ArrayList<>(page.values());
     }
 }
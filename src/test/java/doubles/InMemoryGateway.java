@@ -1,13 +1,15 @@
 package doubles;
 
 import entities.Entity;
+import gateways.IdGenerator;
+import gateways.LongMap;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class InMemoryGateway<T extends Entity> {
 
-    private Set<T> entities = new HashSet<>();
+    private LongMap<T> entities = new LongMap<>();
 
     public T save(T entity) {
         persist(entity);
@@ -15,25 +17,28 @@ public class InMemoryGateway<T extends Entity> {
     }
 
     public T findById(String id) {
-        Optional<T> result = entities.stream()
-                .filter(e -> e.getId().equals(id))
-                .findFirst()
-                .map(this::clone);
+        T entity = entities.get(IdGenerator.parse(id));
+        return Objects.isNull(entity) ? null : clone(entity);
+    }
 
-        return result.isPresent()? result.get() : null;
+    public List<T> findByIds(Collection<String> ids) {
+        return ids.stream()
+                .map(id -> entities.get(IdGenerator.parse(id)))
+                .filter(Objects::nonNull)
+                .map(this::clone)
+                .collect(Collectors.toList());
     }
 
     public List<T> findAll() {
-        return entities.stream()
+        return entities.values().stream()
                 .map(this::clone)
-                .sorted(Comparator.comparing(T::getId))
                 .collect(Collectors.toList());
     }
 
     private void persist(T entity) {
-        entity.setId(UUID.randomUUID().toString());
-        T clone = clone(entity);
-        entities.add(clone);
+        long id = IdGenerator.shared().next();
+        entity.setId(IdGenerator.format(id));
+        entities.put(id, clone(entity));
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,109 @@
+package doubles;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/*
+  Treatments for tests: a drug, the days it is taken on and optionally a
+  patient and a dosage. Every build() makes a new treatment with a dosage and
+  period of its own, so one builder can fill several gateways without them
+  sharing an instance whose id they each set.
+*/
+public final class TreatmentBuilder {
+    // days passed to forDays count from here
+    public static final LocalDate EPOCH = LocalDate.of(2017, 1, 1);
+
+    private final Drug drug;
+    private LocalDate startsOn = EPOCH;
+    private LocalDate stopsOn = EPOCH;
+    private TreatmentPeriod period;
+    private String patientId;
+    private Dosage dosage;
+    private String form;
+    private int quantity;
+    private int intakes;
+
+    private TreatmentBuilder(Drug drug) {
+        this.drug = drug;
+    }
+
+    public static TreatmentBuilder treatment(Drug drug) {
+        return new TreatmentBuilder(drug);
+    }
+
+    public TreatmentBuilder between(LocalDate startsOn, LocalDate stopsOn) {
+        this.startsOn = startsOn;
+        this.stopsOn = stopsOn;
+        this.period = null;
+        return this;
+    }
+
+    public TreatmentBuilder between(String startsOn, String stopsOn) {
+        return between(LocalDate.parse(startsOn), LocalDate.parse(stopsOn));
+    }
+
+    // from EPOCH plus startDay to days later
+    public TreatmentBuilder forDays(int startDay, int days) {
+        return between(EPOCH.plusDays(startDay), EPOCH.plusDays(startDay + days));
+    }
+
+    // stops where the period ends, as a prescribed treatment does
+    public TreatmentBuilder startingOn(String startsOn, TreatmentPeriod period) {
+        this.startsOn = LocalDate.parse(startsOn);
+        this.period = period;
+        return this;
+    }
+
+    public TreatmentBuilder ofPatient(String patientId) {
+        this.patientId = patientId;
+        return this;
+    }
+
+    // the given dosage itself, as one saved beforehand
+    public TreatmentBuilder dosage(Dosage dosage) {
+        this.dosage = dosage;
+        this.form = null;
+        return this;
+    }
+
+    // a new dosage of quantity of the form, intakes times a day
+    public TreatmentBuilder dosed(String form, int quantity, int intakes) {
+        this.dosage = null;
+        this.form = form;
+        this.quantity = quantity;
+        this.intakes = intakes;
+        return this;
+    }
+
+    public Treatment build() {
+        Treatment treatment = new Treatment();
+        treatment.setPatientId(patientId);
+        treatment.setDrug(drug);
+        treatment.setDosage(Objects.nonNull(form) ? newDosage() : dosage);
+        treatment.setStartsOn(startsOn);
+        if (Objects.nonNull(period)) {
+            treatment.setPeriod(new TreatmentPeriod(period.getAmount(), period.getUnit()));
+            treatment.setStopsOn(period.calcEnd(startsOn));
+        } else {
+            treatment.setStopsOn(stopsOn);
+        }
+        return treatment;
+    }
+
+    private Dosage newDosage() {
+        Dose dose = new Dose();
+        dose.setQuantity(quantity);
+        dose.setForm(form);
+
+        Dosage dosage = new Dosage();
+        dosage.setDose(dose);
+        dosage.setDailyIntakeAmount(intakes);
+        return dosage;
+    }
+}
@@ -1,20 +1,69 @@
 package doubles;
 
 import entities.Treatment;
+import usecases.DemandGateway;
 import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.stream.Stream;
 
-public class TreatmentInMemoryGateway extends InMemoryGateway<Treatment> implements TreatmentGateway {
+public class TreatmentInMemoryGateway extends InMemoryGateway<Treatment> implements TreatmentGateway, DemandGateway {
     @Override
     public boolean doesTreatmentExist(Treatment treatment) {
-        List<Treatment> treatments = findAll();
+        TreatmentQuery.Builder query = TreatmentQuery.treatments();
+        if (Objects.nonNull(treatment.getDrug())) query.ofDrug(treatment.getDrug().getId());
+        if (!treatment.getStartsOn().isAfter(treatment.getStopsOn()))
+            query.takenBetween(treatment.getStartsOn(), treatment.getStopsOn());
 
-        Optional<Treatment> result = treatments.stream()
-                .filter(t -> t.doesOverlap(treatment))
-                .findFirst();
+        return findTreatments(query.build()).stream().anyMatch(t -> t.doesOverlap(treatment));
+    }
+
+    @Override
+    public synchronized boolean saveIfNoOverlap(Treatment treatment, Runnable afterCheck) {
+        boolean overlapping = doesTreatmentExist(treatment);
+        afterCheck.run();
+        if (overlapping) return false;
+
+        save(treatment);
+        return true;
+    }
+
+    @Override
+    public synchronized List<Treatment> saveAll(List<Treatment> treatments) {
+        List<Treatment> saved = new ArrayList<>();
+        for (Treatment treatment : treatments) {
+            if (saveIfNoOverlap(treatment)) saved.add(treatment);
+        }
+        return saved;
+    }
+
+    // an id is looked up, anything else is a scan
+    @Override
+    public List<Treatment> findTreatments(TreatmentQuery query) {
+        if (Objects.isNull(query.getTreatmentId())) return query.select(findAll().stream());
+
+        Treatment treatment = findById(query.getTreatmentId());
+        return Objects.isNull(treatment) ? Collections.emptyList() : query.select(Stream.of(treatment));
+    }
+
+    @Override
+    public long findDemand(String drugId, LocalDate first, LocalDate last) {
+        if (first.isAfter(last)) return 0;
+
+        long demand = 0;
+        for (Treatment t : findTreatments(TreatmentQuery.treatments().ofDrug(drugId).takenBetween(first, last).build())) {
+            if (t.getDosage() == null || t.getDosage().getDose() == null) continue;
 
-        return result.isPresent();
+            LocalDate from = t.getStartsOn().isAfter(first) ? t.getStartsOn() : first;
+            LocalDate to = t.getStopsOn().isBefore(last) ? t.getStopsOn() : last;
+            if (!from.isAfter(to)) demand += t.getDosage().totalDailyDose() * (ChronoUnit.DAYS.between(from, to) + 1);
+        }
+        return demand;
     }
 }
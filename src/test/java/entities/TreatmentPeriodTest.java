@@ -70,6 +70,12 @@ public class TreatmentPeriodTest {
         assertFalse(fiveDays.equals(new TreatmentPeriod(5, MONTHS)));
     }
 
+    @Test
+    public void equalPeriodsHashAlike() {
+        assertEquals(fiveDays.hashCode(), new TreatmentPeriod(5, DAYS).hashCode());
+        assertEquals(new TreatmentPeriod().hashCode(), new TreatmentPeriod().hashCode());
+    }
+
     @Test
     public void neverEqualsToEmptyPeriod() {
         assertFalse(fiveDays.equals(null));
@@ -0,0 +1,84 @@
+package gateways;
+
+import doubles.DrugInMemoryGateway;
+import entities.Drug;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingDrugGatewayTest {
+
+    private CountingDrugGateway backingStore = new CountingDrugGateway();
+    private CachingDrugGateway gateway = new CachingDrugGateway(backingStore, new EntityCache<>(100, Duration.ofMinutes(1), true));
+
+    private Drug drug, anotherDrug;
+
+    @Before
+    public void setUp() {
+        drug = gateway.save(new Drug("Arsen Alb"));
+        anotherDrug = gateway.save(new Drug("Vocara"));
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() {
+        for (int i = 0; i < 10; i++) assertEquals(drug, gateway.findById(drug.getId()));
+
+        assertEquals(1, backingStore.lookups);
+        assertEquals(0.9, gateway.stats().hitRate(), 0.0001);
+    }
+
+    @Test
+    public void missingDrugIsLookedUpOnce() {
+        assertNull(gateway.findById("nonExistingDrugId"));
+        assertNull(gateway.findById("nonExistingDrugId"));
+
+        assertEquals(1, backingStore.lookups);
+    }
+
+    @Test
+    public void batchLoadsOnlyUncachedDrugs() {
+        gateway.findById(drug.getId());
+
+        List<Drug> drugs = gateway.findByIds(Arrays.asList(drug.getId(), anotherDrug.getId(), "nonExistingDrugId"));
+        gateway.findByIds(Arrays.asList(anotherDrug.getId(), "nonExistingDrugId"));
+
+        assertEquals(2, drugs.size());
+        assertEquals(Arrays.asList(anotherDrug.getId(), "nonExistingDrugId"), backingStore.batchIds);
+        assertEquals(1, backingStore.batchLookups);
+    }
+
+    @Test
+    public void saveInvalidatesCachedDrug() {
+        gateway.findById(drug.getId());
+        gateway.save(drug);
+
+        gateway.findById(drug.getId());
+
+        assertEquals(2, backingStore.lookups);
+    }
+
+    private static class CountingDrugGateway extends DrugInMemoryGateway {
+        private int lookups;
+        private int batchLookups;
+        private List<String> batchIds;
+
+        @Override
+        public Drug findById(String id) {
+            lookups++;
+            return super.findById(id);
+        }
+
+        @Override
+        public List<Drug> findByIds(Collection<String> ids) {
+            batchLookups++;
+            batchIds = Arrays.asList(ids.toArray(new String[0]));
+            return super.findByIds(ids);
+        }
+    }
+}
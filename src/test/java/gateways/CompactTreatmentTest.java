@@ -0,0 +1,87 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.Assert.*;
+
+public class CompactTreatmentTest {
+
+    private EntityKeys<Drug> drugKeys = new EntityKeys<>();
+    private Flyweights flyweights = new Flyweights();
+
+    @Test
+    public void convertsBackToTheSameTreatment() {
+        Drug drug = new Drug("Arsen Alb");
+        drug.setId("drug#1");
+        Dosage dosage = new Dosage();
+        dosage.setId("dosage#1");
+
+        Treatment treatment = new Treatment();
+        treatment.setId("treatment#1");
+        treatment.setDrug(drug);
+        treatment.setDosage(dosage);
+        treatment.setStartsOn(LocalDate.of(2017, 3, 16));
+        treatment.setPeriod(new TreatmentPeriod(1, ChronoUnit.MONTHS));
+        treatment.setStopsOn(LocalDate.of(2017, 4, 15));
+
+        Treatment restored = CompactTreatment.of(treatment, drugKeys, flyweights).toTreatment(drugKeys, flyweights);
+
+        assertEquals(treatment.getId(), restored.getId());
+        assertEquals(drug, restored.getDrug());
+        assertEquals("Arsen Alb", restored.getDrug().getName());
+        assertEquals(dosage, restored.getDosage());
+        assertEquals(treatment.getStartsOn(), restored.getStartsOn());
+        assertEquals(treatment.getStopsOn(), restored.getStopsOn());
+        assertEquals(treatment.getPeriod(), restored.getPeriod());
+    }
+
+    @Test
+    public void keepsMissingAttributesMissing() {
+        Treatment restored = CompactTreatment.of(new Treatment(), drugKeys, flyweights).toTreatment(drugKeys, flyweights);
+
+        assertNull(restored.getDrug());
+        assertNull(restored.getStartsOn());
+        assertNull(restored.getStopsOn());
+        assertNull(restored.getPeriod());
+    }
+
+    @Test
+    public void sameDrugIdSharesOneKey() {
+        Drug drug = new Drug("Arsen Alb");
+        drug.setId("drug#1");
+        Drug sameDrug = new Drug("Arsen Alb");
+        sameDrug.setId("drug#1");
+
+        assertEquals(drugKeys.register(drug), drugKeys.register(sameDrug));
+        assertEquals(1, drugKeys.size());
+    }
+
+    @Test
+    public void epochDaysKeepOrder() {
+        LocalDate date = LocalDate.of(2017, 3, 16);
+
+        assertEquals(date, CompactTreatment.toDate(CompactTreatment.toDay(date)));
+        assertTrue(CompactTreatment.toDay(date) < CompactTreatment.toDay(date.plusDays(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDatesBeyondIntEpochDays() {
+        CompactTreatment.toDay(LocalDate.MAX);
+    }
+
+    @Test
+    public void queryBoundsBeyondIntEpochDaysStopAtTheRange() {
+        LocalDate date = LocalDate.of(2017, 3, 16);
+
+        assertEquals(CompactTreatment.toDay(date), CompactTreatment.toBoundDay(date));
+        assertEquals(Integer.MAX_VALUE, CompactTreatment.toBoundDay(LocalDate.MAX));
+        assertEquals(CompactTreatment.NO_DAY + 1, CompactTreatment.toBoundDay(LocalDate.MIN));
+    }
+}
@@ -0,0 +1,57 @@
+package gateways;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DemandTreeTest {
+
+    @Test
+    public void sumsQuantitiesOverlappingTheRange() {
+        DemandTree tree = new DemandTree();
+        tree.add(100, 104, 3);
+        tree.add(103, 110, 2);
+
+        assertEquals(3 * 5 + 2 * 8, tree.sum(90, 120));
+        assertEquals((3 + 2) * 2, tree.sum(103, 104));
+        assertEquals(2 * 2, tree.sum(109, 200));
+        assertEquals(0, tree.sum(111, 200));
+        assertEquals(0, tree.sum(0, 99));
+    }
+
+    @Test
+    public void matchesCountingEveryDay() {
+        Random random = new Random(5);
+        long[] demand = new long[4000];
+        DemandTree tree = new DemandTree();
+
+        for (int i = 0; i < 1000; i++) {
+            int from = random.nextInt(3900), to = from + random.nextInt(100);
+            int quantity = 1 + random.nextInt(9);
+
+            tree.add(from, to, quantity);
+            for (int day = from; day <= to; day++) demand[day] += quantity;
+
+            int first = random.nextInt(4000), last = first + random.nextInt(4000 - first);
+            long expected = 0;
+            for (int day = first; day <= last; day++) expected += demand[day];
+
+            assertEquals(expected, tree.sum(first, last));
+        }
+    }
+
+    @Test
+    public void veryLongTreatmentsKeepFewNodes() {
+        DemandTree tree = new DemandTree();
+        tree.add(-100_000_000, 100_000_000, 7);
+        tree.add(Integer.MIN_VALUE + 1, Integer.MAX_VALUE, 1_000_000_000);
+
+        assertTrue(tree.nodeCount() <= 4 * 33);
+        assertEquals(7L * 200_000_001 + 1_000_000_000L * 200_000_001, tree.sum(-100_000_000, 100_000_000));
+        assertEquals(1_000_000_000L * 2, tree.sum(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertEquals(1_000_000_000L + 7, tree.sum(0, 0));
+        assertEquals(1_000_000_000L, tree.sum(Integer.MIN_VALUE, Integer.MIN_VALUE + 1));
+    }
+}
@@ -0,0 +1,150 @@
+package gateways;
+
+import entities.Drug;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheTest {
+
+    private AtomicInteger loads = new AtomicInteger();
+    private AtomicLong now = new AtomicLong();
+
+    @Test
+    public void loadsOnceAndThenHits() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+
+        cache.getOrLoad("drug#1", loader());
+        Drug cached = cache.getOrLoad("drug#1", loader());
+
+        assertEquals("drug#1", cached.getId());
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.stats().hitRate(), 0.0001);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        EntityCache<Drug> cache = new EntityCache<>(2);
+
+        cache.getOrLoad("drug#1", loader());
+        cache.getOrLoad("drug#2", loader());
+        cache.getOrLoad("drug#1", loader());
+        cache.getOrLoad("drug#3", loader());
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().getEvictions());
+
+        cache.getOrLoad("drug#1", loader());
+        assertEquals(3, loads.get());
+
+        cache.getOrLoad("drug#2", loader());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void expiresEntriesAfterTimeToLive() {
+        EntityCache<Drug> cache = new EntityCache<>(10, Duration.ofSeconds(5), true, now::get);
+
+        cache.getOrLoad("drug#1", loader());
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        cache.getOrLoad("drug#1", loader());
+        assertEquals(1, loads.get());
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.getOrLoad("drug#1", loader());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void remembersMissingEntitiesWhenAskedTo() {
+        EntityCache<Drug> cache = new EntityCache<>(10, Duration.ZERO, true);
+
+        assertNull(cache.getOrLoad("nonExistingDrugId", missingLoader()));
+        assertNull(cache.getOrLoad("nonExistingDrugId", missingLoader()));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void missingEntitiesAreNotCachedByDefault() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+
+        cache.getOrLoad("nonExistingDrugId", missingLoader());
+        cache.getOrLoad("nonExistingDrugId", missingLoader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void hitsShareOneFrozenEntity() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+
+        Drug loaded = cache.getOrLoad("drug#1", loader());
+        Drug hit = cache.getOrLoad("drug#1", loader());
+
+        assertSame(loaded, hit);
+        assertTrue(hit.isFrozen());
+        try {
+            hit.setName("changed");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals("Arsen Alb", cache.getOrLoad("drug#1", loader()).getName());
+        }
+    }
+
+    @Test
+    public void frozenEntitiesAreCachedWithoutCopying() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+        Drug frozen = (Drug) loader().apply("drug#1").frozenCopy();
+
+        assertSame(frozen, cache.getOrLoad("drug#1", id -> frozen));
+        assertSame(frozen, cache.getOrLoad("drug#1", loader()));
+    }
+
+    @Test
+    public void invalidatedEntryIsLoadedAgain() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+
+        cache.getOrLoad("drug#1", loader());
+        cache.invalidate("drug#1");
+        cache.getOrLoad("drug#1", loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void loadOvertakenByInvalidateIsNotCached() {
+        EntityCache<Drug> cache = new EntityCache<>(10);
+
+        Drug stale = cache.getOrLoad("drug#1", id -> {
+            Drug drug = loader().apply(id);
+            cache.invalidate(id);
+            return drug;
+        });
+        Drug fresh = cache.getOrLoad("drug#1", loader());
+
+        assertNotSame(stale, fresh);
+        assertEquals(2, loads.get());
+        assertSame(fresh, cache.getOrLoad("drug#1", loader()));
+    }
+
+    private Function<String, Drug> loader() {
+        return id -> {
+            loads.incrementAndGet();
+            Drug drug = new Drug("Arsen Alb");
+            drug.setId(id);
+            return drug;
+        };
+    }
+
+    private Function<String, Drug> missingLoader() {
+        return id -> {
+            loads.incrementAndGet();
+            return null;
+        };
+    }
+}
@@ -0,0 +1,360 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class FileStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final TreatmentPeriod MONTH = new TreatmentPeriod(1, ChronoUnit.MONTHS);
+
+    private FileStore store;
+
+    @After
+    public void tearDown() throws IOException {
+        if (store != null) store.close();
+    }
+
+    @Test
+    public void savedEntitiesSurviveReopening() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory);
+
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        Dosage dosage = store.dosages().save(dosage(3));
+        Treatment treatment = store.treatments().save(
+                treatment(drug).dosage(dosage).startingOn("2017-03-16", MONTH).build());
+        store.close();
+
+        store = FileStore.open(directory);
+
+        assertEquals("Arsen Alb", store.drugs().findById(drug.getId()).getName());
+        assertEquals(3, store.dosages().findById(dosage.getId()).getDailyIntakeAmount());
+        assertEquals("pill", store.dosages().findById(dosage.getId()).getDose().getForm());
+
+        Treatment restored = store.treatments().findAll().get(0);
+        assertEquals(treatment, restored);
+        assertEquals("Arsen Alb", restored.getDrug().getName());
+        assertEquals(dosage, restored.getDosage());
+        assertEquals(LocalDate.of(2017, 3, 16), restored.getStartsOn());
+        assertEquals(new TreatmentPeriod(1, ChronoUnit.MONTHS), restored.getPeriod());
+        assertEquals(1, store.drugs().findPrescribedDrugs().size());
+    }
+
+    @Test
+    public void patientsSurviveReopeningAndCheckpoints() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        Treatment first = treatment(drug).ofPatient("patient#1").startingOn("2017-03-16", MONTH).build();
+        store.treatments().save(first);
+        store.checkpoint();
+
+        Treatment second = treatment(drug).ofPatient("patient#2").startingOn("2017-03-16", MONTH).build();
+        assertTrue(store.treatments().saveIfNoOverlap(second));
+        store.close();
+
+        store = FileStore.open(directory);
+
+        Treatment overlapping = treatment(drug).startingOn("2017-04-01", MONTH).build();
+        overlapping.setPatientId("patient#1");
+        assertFalse(store.treatments().saveIfNoOverlap(overlapping));
+        overlapping.setPatientId("patient#3");
+        assertTrue(store.treatments().saveIfNoOverlap(overlapping));
+        assertEquals(3, store.treatments().size());
+    }
+
+    @Test
+    public void overlapIndexIsRebuiltOnOpen() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        store.treatments().saveIfNoOverlap(treatment(drug).startingOn("2017-03-16", MONTH).build());
+        store.close();
+
+        store = FileStore.open(directory);
+
+        assertFalse(store.treatments().saveIfNoOverlap(treatment(drug).startingOn("2017-04-01", MONTH).build()));
+        assertTrue(store.treatments().saveIfNoOverlap(treatment(drug).startingOn("2017-05-01", MONTH).build()));
+    }
+
+    @Test
+    public void rollsOverToNewSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 256);
+
+        for (int i = 0; i < 100; i++) store.drugs().save(new Drug("drug" + i));
+        assertTrue(store.segmentCount() > 1);
+        store.close();
+
+        store = FileStore.open(directory, 256);
+
+        assertEquals(100, store.drugs().findAll().size());
+    }
+
+    @Test
+    public void savesTheLogRefusesLeaveTheGatewaysUnchanged() throws IOException {
+        store = FileStore.open(folder.getRoot().toPath(), 256);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        String tooLong = new String(new char[300]).replace('\0', 'x');
+
+        Drug refusedDrug = new Drug(tooLong);
+        try {
+            store.drugs().save(refusedDrug);
+            fail("Expected the log to refuse the drug");
+        } catch (IllegalArgumentException expected) {
+        }
+        Treatment refused = treatment(drug).ofPatient(tooLong).startingOn("2017-03-16", MONTH).build();
+        try {
+            store.treatments().saveIfNoOverlap(refused);
+            fail("Expected the log to refuse the treatment");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertNull(refusedDrug.getId());
+        assertEquals(1, store.drugs().findAll().size());
+        assertNull(refused.getId());
+        assertEquals(0, store.treatments().size());
+        assertFalse(store.treatments().doesTreatmentExist(refused));
+        assertTrue(store.treatments().saveIfNoOverlap(
+                treatment(drug).ofPatient("patient#1").startingOn("2017-03-16", MONTH).build()));
+    }
+
+    @Test
+    public void foundEntitiesAreFrozenAndTheirClonesCanBeSaved() throws Exception {
+        store = FileStore.open(folder.getRoot().toPath());
+        Drug found = store.drugs().findById(store.drugs().save(new Drug("Arsen Alb")).getId());
+        Dosage foundDosage = store.dosages().findById(store.dosages().save(dosage(3)).getId());
+
+        try {
+            found.setName("Vocara");
+            fail("Expected a found drug to be frozen");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            store.dosages().save(foundDosage);
+            fail("Expected a found dosage to be frozen");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        Drug changed = (Drug) found.clone();
+        changed.setName("Vocara");
+        Dosage changedDosage = (Dosage) foundDosage.clone();
+        changedDosage.getDose().setQuantity(5);
+
+        assertEquals("Vocara", store.drugs().findById(store.drugs().save(changed).getId()).getName());
+        assertEquals(5, store.dosages().findById(store.dosages().save(changedDosage).getId()).getDose().getQuantity());
+        assertEquals("Arsen Alb", store.drugs().findById(found.getId()).getName());
+        assertEquals(1, store.dosages().findById(foundDosage.getId()).getDose().getQuantity());
+    }
+
+    @Test
+    public void tornRecordIsDroppedOnOpen() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 4096);
+        Drug kept = store.drugs().save(new Drug("kept"));
+        store.drugs().save(new Drug("torn"));
+        store.close();
+
+        // the second record lost its last byte
+        int secondRecordEnd = 2 * (8 + LogRecords.drug(kept).length);
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000000.log").toFile(), "rw")) {
+            file.seek(secondRecordEnd - 1);
+            int last = file.read();
+            file.seek(secondRecordEnd - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        store = FileStore.open(directory, 4096);
+
+        assertEquals(1, store.drugs().findAll().size());
+        assertEquals(kept, store.drugs().findAll().get(0));
+
+        Drug next = store.drugs().save(new Drug("next"));
+        store.close();
+        store = FileStore.open(directory, 4096);
+
+        assertEquals(2, store.drugs().findAll().size());
+        assertNotNull(store.drugs().findById(next.getId()));
+    }
+
+    @Test
+    public void recordsPastATornOneStayDroppedAfterAppendsGoOn() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 4096);
+        Drug kept = store.drugs().save(new Drug("kept"));
+        store.drugs().save(new Drug("torn"));
+        Drug stale = store.drugs().save(new Drug("late"));
+        store.close();
+
+        int recordSize = 8 + LogRecords.drug(kept).length;
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000000.log").toFile(), "rw")) {
+            file.seek(2 * recordSize - 1);
+            int last = file.read();
+            file.seek(2 * recordSize - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        // the record taking the torn one's place is as long, so it ends right where the stale one starts
+        store = FileStore.open(directory, 4096);
+        Drug next = store.drugs().save(new Drug("next"));
+        assertEquals(recordSize, LogRecords.drug(next).length + 8);
+        store.close();
+        store = FileStore.open(directory, 4096);
+
+        assertEquals(2, store.drugs().findAll().size());
+        assertNotNull(store.drugs().findById(next.getId()));
+        assertNull(store.drugs().findById(stale.getId()));
+    }
+
+    @Test
+    public void concurrentSavesAreAllDurable() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 1 << 16);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Drug>> saves = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String name = "drug" + i;
+            saves.add(executor.submit(() -> store.drugs().save(new Drug(name))));
+        }
+        for (Future<Drug> save : saves) save.get();
+        executor.shutdown();
+        store.close();
+
+        store = FileStore.open(directory, 1 << 16);
+
+        assertEquals(400, store.drugs().findAll().size());
+    }
+
+    @Test
+    public void checkpointIsRestoredAndOnlyNewerRecordsAreReplayed() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 4096);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        store.treatments().saveIfNoOverlap(treatment(drug).startingOn("2017-03-16", MONTH).build());
+        store.checkpoint();
+        Drug later = store.drugs().save(new Drug("Vocara"));
+        store.close();
+
+        // records covered by the snapshot are no longer read from the log
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000000.log").toFile(), "rw")) {
+            file.seek(Integer.BYTES);
+            file.writeInt(0);
+        }
+
+        store = FileStore.open(directory, 4096);
+
+        assertEquals(2, store.drugs().findAll().size());
+        assertEquals("Vocara", store.drugs().findById(later.getId()).getName());
+        assertEquals("Arsen Alb", store.treatments().findAll().get(0).getDrug().getName());
+        assertFalse(store.treatments().saveIfNoOverlap(treatment(drug).startingOn("2017-04-01", MONTH).build()));
+    }
+
+    @Test
+    public void damagedCheckpointFallsBackToTheLog() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 4096);
+        store.drugs().save(new Drug("Arsen Alb"));
+        store.checkpoint();
+        store.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("snapshot.bin").toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            file.write(0);
+        }
+
+        store = FileStore.open(directory, 4096);
+
+        assertEquals(1, store.drugs().findAll().size());
+    }
+
+    @Test
+    public void checkpointDoesNotLoseConcurrentSaves() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory, 1 << 16);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> saves = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String startsOn = LocalDate.of(2000, 1, 1).plusMonths(2 * i).toString();
+            Treatment treatment = treatment(drug).startingOn(startsOn, MONTH).build();
+            saves.add(executor.submit(() -> store.treatments().saveIfNoOverlap(treatment)));
+            if (i % 100 == 0) store.checkpoint();
+        }
+        for (Future<Boolean> save : saves) assertTrue(save.get());
+        executor.shutdown();
+        store.close();
+
+        store = FileStore.open(directory, 1 << 16);
+
+        assertEquals(300, store.treatments().size());
+        assertEquals(300, store.treatments().findAll().stream().map(Treatment::getId).distinct().count());
+    }
+
+    @Test
+    public void findsDosageByDrugAndTreatmentAfterReopening() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        store = FileStore.open(directory);
+        Drug drug = store.drugs().save(new Drug("Arsen Alb"));
+        Drug another = store.drugs().save(new Drug("Vocara"));
+        Dosage dosage = store.dosages().save(dosage(3));
+        Dosage anotherDosage = store.dosages().save(dosage(1));
+        Treatment treatment = store.treatments().save(
+                treatment(drug).dosage(dosage).startingOn("2017-03-16", MONTH).build());
+        store.treatments().save(treatment(drug).dosage(anotherDosage).startingOn("2017-05-16", MONTH).build());
+        store.checkpoint();
+        store.close();
+
+        store = FileStore.open(directory);
+
+        assertEquals(dosage, store.dosages().findDrugDosageByTreatmentId(drug.getId(), treatment.getId()));
+        assertEquals(dosage, store.dosages().findDrugDosageByTreatmentId(null, treatment.getId()));
+        assertNull(store.dosages().findDrugDosageByTreatmentId(another.getId(), treatment.getId()));
+
+        Map<String, List<Dosage>> byDrug = store.dosages().findDosagesByDrugIds(Arrays.asList(drug.getId(), another.getId()));
+        assertEquals(
+                new HashSet<>(Arrays.asList(dosage.getId(), anotherDosage.getId())),
+                byDrug.get(drug.getId()).stream().map(Dosage::getId).collect(Collectors.toSet()));
+        assertTrue(byDrug.get(another.getId()).isEmpty());
+    }
+
+    private Dosage dosage(int intakes) {
+        Dose dose = new Dose();
+        dose.setQuantity(1);
+        dose.setForm("pill");
+
+        Dosage dosage = new Dosage();
+        dosage.setDose(dose);
+        dosage.setDailyIntakeAmount(intakes);
+        return dosage;
+    }
+}
@@ -0,0 +1,129 @@
+package gateways;
+
+import doubles.TreatmentBuilder;
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Before;
+import org.junit.Test;
+import usecases.TreatmentGateway;
+import usecases.TreatmentQuery;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static doubles.TreatmentBuilder.EPOCH;
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class FindTreatmentsTest {
+
+    private Drug[] drugs = new Drug[8];
+    private Random random = new Random(11);
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < drugs.length; i++) {
+            drugs[i] = new Drug("drug" + i);
+            drugs[i].setId("drug#" + i);
+        }
+    }
+
+    @Test
+    public void plansLookupsForIdsAndDrugsAndScansOtherwise() {
+        IndexedTreatmentGateway gateway = new IndexedTreatmentGateway();
+        for (int i = 0; i < 100; i++) gateway.save(treatment(drugs[i % 4]).forDays(i * 5, 3).build());
+
+        assertEquals(QueryPlan.BY_ID, gateway.plan(TreatmentQuery.treatments().withId("any").ofDrug("drug#0").build()));
+        assertEquals(QueryPlan.BY_DRUG, gateway.plan(TreatmentQuery.treatments().ofDrug("drug#0").build()));
+        assertEquals(QueryPlan.SCAN, gateway.plan(TreatmentQuery.treatments().takenBetween(EPOCH, EPOCH).build()));
+    }
+
+    @Test
+    public void scansForADrugWithMostOfTheTreatmentsUnlessDaysNarrowThem() {
+        IndexedTreatmentGateway gateway = new IndexedTreatmentGateway();
+        for (int i = 0; i < 10; i++) gateway.save(treatment(drugs[0]).forDays(i * 5, 3).build());
+        gateway.save(treatment(drugs[1]).forDays(0, 3).build());
+
+        assertEquals(QueryPlan.SCAN, gateway.plan(TreatmentQuery.treatments().ofDrug("drug#0").build()));
+        assertEquals(QueryPlan.BY_DRUG, gateway.plan(TreatmentQuery.treatments().ofDrug("drug#0").takenBetween(EPOCH, EPOCH).build()));
+    }
+
+    @Test
+    public void findsByIdDrugAndDays() {
+        IndexedTreatmentGateway gateway = new IndexedTreatmentGateway();
+        Treatment early = gateway.save(treatment(drugs[0]).forDays(0, 9).build());
+        Treatment late = gateway.save(treatment(drugs[0]).forDays(20, 9).build());
+        gateway.save(treatment(drugs[1]).forDays(0, 9).build());
+
+        assertEquals(ids(early), ids(gateway.findTreatments(TreatmentQuery.treatments().withId(early.getId()).build())));
+        assertEquals(ids(early, late), ids(gateway.findTreatments(TreatmentQuery.treatments().ofDrug("drug#0").build())));
+        assertEquals(ids(late), ids(gateway.findTreatments(TreatmentQuery.treatments()
+                .ofDrug("drug#0").takenBetween(EPOCH.plusDays(29), EPOCH.plusDays(40)).build())));
+        assertTrue(gateway.findTreatments(TreatmentQuery.treatments().ofDrug("drug#9").build()).isEmpty());
+        assertTrue(gateway.findTreatments(TreatmentQuery.treatments().withId("unknown").build()).isEmpty());
+    }
+
+    @Test
+    public void daysBeyondTheStoredRangeDoNotFailTheQuery() {
+        IndexedTreatmentGateway indexed = new IndexedTreatmentGateway();
+        OffHeapTreatmentGateway offHeap = new OffHeapTreatmentGateway();
+        indexed.save(treatment(drugs[0]).forDays(0, 9).build());
+        offHeap.save(treatment(drugs[0]).forDays(0, 9).build());
+        TreatmentQuery always = TreatmentQuery.treatments().takenBetween(LocalDate.MIN, LocalDate.MAX).build();
+
+        assertEquals(1, indexed.findTreatments(always).size());
+        assertEquals(1, offHeap.findTreatments(always).size());
+        assertEquals(0, indexed.findDemand("drug#0", LocalDate.MAX, LocalDate.MAX));
+    }
+
+    @Test
+    public void everyStoreAnswersLikeAScan() {
+        IndexedTreatmentGateway indexed = new IndexedTreatmentGateway();
+        PartitionedTreatmentGateway partitioned = new PartitionedTreatmentGateway(4);
+        OffHeapTreatmentGateway offHeap = new OffHeapTreatmentGateway();
+
+        for (int i = 0; i < 500; i++) {
+            TreatmentBuilder treatment = treatment(drugs[random.nextInt(drugs.length)])
+                    .forDays(random.nextInt(365), random.nextInt(30))
+                    .ofPatient("patient#" + random.nextInt(20));
+            indexed.save(treatment.build());
+            partitioned.save(treatment.build());
+            offHeap.save(treatment.build());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            TreatmentQuery query = randomQuery();
+
+            assertSameAnswer(indexed, indexed.findAll(), query);
+            assertSameAnswer(partitioned, partitioned.findAll(), query);
+            assertSameAnswer(offHeap, offHeap.findAll(), query);
+        }
+    }
+
+    private void assertSameAnswer(TreatmentGateway gateway, List<Treatment> all, TreatmentQuery query) {
+        assertEquals(ids(query.select(all.stream())), ids(gateway.findTreatments(query)));
+    }
+
+    private TreatmentQuery randomQuery() {
+        TreatmentQuery.Builder query = TreatmentQuery.treatments();
+        if (random.nextBoolean()) query.ofDrug("drug#" + random.nextInt(drugs.length + 1));
+        if (random.nextBoolean()) {
+            LocalDate first = EPOCH.plusDays(random.nextInt(400));
+            query.takenBetween(first, first.plusDays(random.nextInt(60)));
+        }
+        if (random.nextBoolean()) query.orderedBy(TreatmentQuery.Order.START);
+        if (random.nextBoolean()) query.limit(1 + random.nextInt(10));
+        return query.build();
+    }
+
+    private static List<String> ids(Treatment... treatments) {
+        return ids(Arrays.asList(treatments));
+    }
+
+    private static List<String> ids(List<Treatment> treatments) {
+        return treatments.stream().map(Treatment::getId).collect(Collectors.toList());
+    }
+}
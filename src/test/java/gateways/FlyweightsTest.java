@@ -0,0 +1,93 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MONTHS;
+import static org.junit.Assert.*;
+
+public class FlyweightsTest {
+
+    private Flyweights flyweights = new Flyweights();
+
+    @Test
+    public void equalPeriodsAreOneFrozenInstance() {
+        TreatmentPeriod period = flyweights.period(new TreatmentPeriod(5, DAYS));
+
+        assertSame(period, flyweights.period(new TreatmentPeriod(5, DAYS)));
+        assertNotSame(period, flyweights.period(new TreatmentPeriod(5, MONTHS)));
+        assertTrue(period.isFrozen());
+        assertEquals(new TreatmentPeriod(5, DAYS), period);
+    }
+
+    @Test
+    public void dosagesShareTheirDose() {
+        Dosage one = flyweights.dosage(dosage("dosage#1", 3, "pill"));
+        Dosage another = flyweights.dosage(dosage("dosage#2", 3, "pill"));
+        Dosage drops = flyweights.dosage(dosage("dosage#3", 3, "drop"));
+
+        assertSame(one.getDose(), another.getDose());
+        assertNotSame(one.getDose(), drops.getDose());
+        assertTrue(one.isFrozen());
+        assertTrue(one.getDose().isFrozen());
+        assertSame(one, flyweights.dosage(one));
+    }
+
+    @Test
+    public void eachStoreKeepsItsOwn() {
+        Flyweights another = new Flyweights();
+
+        assertNotSame(flyweights.period(new TreatmentPeriod(5, DAYS)), another.period(new TreatmentPeriod(5, DAYS)));
+        assertNotSame(flyweights.dose(dosage("dosage#1", 3, "pill").getDose()),
+                another.dose(dosage("dosage#1", 3, "pill").getDose()));
+        assertEquals(1, flyweights.periodCount());
+        assertEquals(1, another.doseCount());
+    }
+
+    @Test
+    public void storedTreatmentsShareDrugDoseAndPeriod() {
+        IndexedTreatmentGateway gateway = new IndexedTreatmentGateway();
+        Drug drug = new Drug("Arnica");
+        drug.setId("drug#1");
+
+        for (int i = 0; i < 10; i++) {
+            Treatment treatment = new Treatment();
+            treatment.setDrug(drug);
+            treatment.setDosage(dosage("dosage#" + i, 2, "pill"));
+            treatment.setPeriod(new TreatmentPeriod(10, DAYS));
+            treatment.setStartsOn(LocalDate.of(2017, 3, 1).plusDays(i * 10));
+            treatment.setStopsOn(LocalDate.of(2017, 3, 10).plusDays(i * 10));
+            gateway.save(treatment);
+        }
+
+        List<Treatment> stored = gateway.findAll();
+        Treatment first = stored.get(0);
+        for (Treatment treatment : stored) {
+            assertSame(first.getDrug(), treatment.getDrug());
+            assertSame(first.getPeriod(), treatment.getPeriod());
+            assertSame(first.getDosage().getDose(), treatment.getDosage().getDose());
+        }
+        assertNotSame(drug, first.getDrug());
+        assertTrue(first.getDrug().isFrozen());
+    }
+
+    private static Dosage dosage(String id, int quantity, String form) {
+        Dose dose = new Dose();
+        dose.setQuantity(quantity);
+        dose.setForm(form);
+
+        Dosage dosage = new Dosage();
+        dosage.setId(id);
+        dosage.setDose(dose);
+        dosage.setDailyIntakeAmount(2);
+        return dosage;
+    }
+}
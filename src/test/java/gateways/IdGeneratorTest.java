@@ -0,0 +1,90 @@
+package gateways;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class IdGeneratorTest {
+
+    private AtomicLong now = new AtomicLong(IdGenerator.EPOCH + 1000);
+
+    @Test
+    public void idsIncreaseWithinAndAcrossMilliseconds() {
+        IdGenerator ids = new IdGenerator(3, now::get);
+
+        long first = ids.next();
+        long second = ids.next();
+        now.incrementAndGet();
+        long third = ids.next();
+
+        assertEquals(first + 1, second);
+        assertTrue(third > second);
+        assertEquals(IdGenerator.EPOCH + 1001, IdGenerator.timeOf(third));
+        assertEquals(3, IdGenerator.nodeOf(third));
+    }
+
+    @Test
+    public void keepsIncreasingWhenTheClockStepsBack() {
+        IdGenerator ids = new IdGenerator(0, now::get);
+
+        long before = ids.next();
+        now.addAndGet(-500);
+
+        assertTrue(ids.next() > before);
+    }
+
+    @Test
+    public void borrowsTheNextMillisecondWhenTheSequenceRunsOut() {
+        IdGenerator ids = new IdGenerator(7, now::get);
+
+        long last = 0;
+        for (int i = 0; i < 5000; i++) {
+            long id = ids.next();
+            assertTrue(id > last);
+            assertEquals(7, IdGenerator.nodeOf(id));
+            last = id;
+        }
+        assertEquals(IdGenerator.EPOCH + 1001, IdGenerator.timeOf(last));
+    }
+
+    @Test
+    public void nodesNeverShareIds() {
+        long one = new IdGenerator(1, now::get).next();
+        long another = new IdGenerator(2, now::get).next();
+
+        assertNotEquals(one, another);
+    }
+
+    @Test
+    public void stringsSortAsTheirIds() {
+        IdGenerator ids = new IdGenerator(IdGenerator.MAX_NODE, now::get);
+
+        String previous = IdGenerator.format(ids.next());
+        for (int i = 0; i < 100; i++) {
+            now.addAndGet(i * 997L);
+            long id = ids.next();
+            String formatted = IdGenerator.format(id);
+
+            assertEquals(13, formatted.length());
+            assertEquals(id, IdGenerator.parse(formatted));
+            assertTrue(formatted.compareTo(previous) > 0);
+            previous = formatted;
+        }
+    }
+
+    @Test
+    public void otherStringsAreNoIds() {
+        assertEquals(IdGenerator.NO_ID, IdGenerator.parse(null));
+        assertEquals(IdGenerator.NO_ID, IdGenerator.parse("drug#1"));
+        assertEquals(IdGenerator.NO_ID, IdGenerator.parse("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+        assertEquals(IdGenerator.NO_ID, IdGenerator.parse("zzzzzzzzzzzzz"));
+        assertEquals(IdGenerator.NO_ID, IdGenerator.parse("0000000000ui0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNodesOutOfRange() {
+        new IdGenerator(IdGenerator.MAX_NODE + 1);
+    }
+}
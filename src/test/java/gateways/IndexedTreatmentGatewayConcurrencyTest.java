@@ -0,0 +1,94 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedTreatmentGatewayConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 2000;
+
+    private IndexedTreatmentGateway gateway = new IndexedTreatmentGateway(4);
+
+    @Test
+    public void concurrentPrescriptionsNeverStoreOverlappingTreatments() throws Exception {
+        Drug[] drugs = drugs(6);
+        AtomicInteger saved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?>[] workers = new Future<?>[THREADS];
+            for (int w = 0; w < THREADS; w++) {
+                Random random = new Random(w);
+                workers[w] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        Treatment t = treatment(drugs[random.nextInt(drugs.length)])
+                                .forDays(random.nextInt(2000), random.nextInt(20))
+                                .build();
+                        if (gateway.saveIfNoOverlap(t)) saved.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) worker.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Treatment> stored = gateway.findAll();
+        assertEquals(saved.get(), stored.size());
+        assertTrue(saved.get() > 0);
+        assertNoOverlaps(stored);
+        assertInIdOrder(stored);
+    }
+
+    // ids are generated before a treatment is kept, so concurrent saves keep them out of order
+    private void assertInIdOrder(List<Treatment> stored) {
+        for (int i = 1; i < stored.size(); i++) {
+            assertTrue(IdGenerator.parse(stored.get(i - 1).getId()) < IdGenerator.parse(stored.get(i).getId()));
+        }
+    }
+
+    private void assertNoOverlaps(List<Treatment> stored) {
+        Map<String, List<Treatment>> byDrug = stored.stream()
+                .collect(Collectors.groupingBy(t -> t.getDrug().getId()));
+
+        byDrug.values().forEach(treatments -> {
+            treatments.sort(Comparator.comparing(Treatment::getStartsOn));
+            for (int i = 1; i < treatments.size(); i++) {
+                assertFalse(treatments.get(i - 1).doesOverlap(treatments.get(i)));
+            }
+        });
+    }
+
+    private Drug[] drugs(int count) {
+        Drug[] drugs = new Drug[count];
+        for (int i = 0; i < count; i++) {
+            drugs[i] = new Drug("drug" + i);
+            drugs[i].setId("drug#" + i);
+        }
+        return drugs;
+    }
+}
@@ -0,0 +1,107 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class IndexedTreatmentGatewayTest {
+
+    private IndexedTreatmentGateway gateway = new IndexedTreatmentGateway();
+
+    private Drug drug, anotherDrug;
+
+    @Before
+    public void setUp() {
+        drug = new Drug("Arsen Alb");
+        drug.setId("drug#1");
+
+        anotherDrug = new Drug("Vocara");
+        anotherDrug.setId("drug#2");
+    }
+
+    @Test
+    public void assignsIdOnSave() {
+        Treatment t = gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        assertNotNull(t.getId());
+        assertEquals(1, gateway.size());
+    }
+
+    @Test
+    public void detectsOverlapForTheSameDrug() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-04-15", "2017-04-16").build()));
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-03-15", "2017-03-16").build()));
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-03-01", "2017-05-01").build()));
+    }
+
+    @Test
+    public void noOverlapOutsideOfTreatmentPeriod() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        assertFalse(gateway.doesTreatmentExist(treatment(drug).between("2017-04-16", "2017-04-20").build()));
+        assertFalse(gateway.doesTreatmentExist(treatment(drug).between("2017-03-14", "2017-03-15").build()));
+    }
+
+    @Test
+    public void noOverlapWhenDrugsAreDifferent() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        assertFalse(gateway.doesTreatmentExist(treatment(anotherDrug).between("2017-03-16", "2017-04-15").build()));
+    }
+
+    @Test
+    public void savesOnlyWhenThereIsNoOverlap() {
+        assertTrue(gateway.saveIfNoOverlap(treatment(drug).between("2017-03-16", "2017-04-15").build()));
+        assertFalse(gateway.saveIfNoOverlap(treatment(drug).between("2017-04-01", "2017-04-20").build()));
+        assertTrue(gateway.saveIfNoOverlap(treatment(anotherDrug).between("2017-04-01", "2017-04-20").build()));
+
+        assertEquals(2, gateway.size());
+    }
+
+    @Test
+    public void savesBatchSkippingOverlappingTreatments() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        Treatment overlapping = treatment(drug).between("2017-04-01", "2017-04-20").build();
+        Treatment laterOne = treatment(drug).between("2017-05-01", "2017-05-20").build();
+        Treatment overlapsLaterOne = treatment(drug).between("2017-05-10", "2017-05-12").build();
+        Treatment otherDrug = treatment(anotherDrug).between("2017-04-01", "2017-04-20").build();
+
+        List<Treatment> saved = gateway.saveAll(Arrays.asList(overlapping, laterOne, overlapsLaterOne, otherDrug));
+
+        assertEquals(Arrays.asList(laterOne, otherDrug), saved);
+        assertEquals(3, gateway.size());
+    }
+
+    @Test
+    public void updateOfSavedTreatmentHasNoEffectOnIndex() {
+        Treatment t = gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        t.setStartsOn(LocalDate.of(2018, Month.MARCH, 16));
+        t.setStopsOn(LocalDate.of(2018, Month.APRIL, 15));
+
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-03-16", "2017-03-16").build()));
+    }
+
+    @Test
+    public void pagesPrescribedDrugsInIdOrder() {
+        gateway.save(treatment(anotherDrug).between("2017-03-16", "2017-04-15").build());
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+        gateway.save(treatment(drug).between("2017-05-16", "2017-06-15").build());
+
+        assertEquals(Arrays.asList(drug), gateway.findPrescribedDrugs(null, 1));
+        assertEquals(Arrays.asList(anotherDrug), gateway.findPrescribedDrugs(drug.getId(), 5));
+        assertTrue(gateway.findPrescribedDrugs(anotherDrug.getId(), 5).isEmpty());
+    }
+}
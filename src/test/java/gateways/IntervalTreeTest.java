@@ -0,0 +1,102 @@
+package gateways;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalTreeTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(2017, 1, 1);
+
+    private IntervalTree<String> tree = new IntervalTree<>();
+
+    @Test
+    public void emptyTreeHasNoOverlaps() {
+        assertFalse(tree.overlaps(day(0), day(10)));
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void boundariesAreInclusive() {
+        tree.insert(day(10), day(20), "a");
+
+        assertTrue(tree.overlaps(day(20), day(25)));
+        assertTrue(tree.overlaps(day(5), day(10)));
+        assertFalse(tree.overlaps(day(21), day(25)));
+        assertFalse(tree.overlaps(day(5), day(9)));
+    }
+
+    @Test
+    public void findsIntervalHiddenBehindLaterStarts() {
+        tree.insert(day(0), day(100), "long");
+        for (int i = 1; i < 50; i++) tree.insert(day(i), day(i), "short" + i);
+
+        assertTrue(tree.overlaps(day(90), day(95)));
+        assertEquals(50, tree.size());
+    }
+
+    @Test
+    public void reportsEveryOverlappingInterval() {
+        tree.insert(day(0), day(5), "a");
+        tree.insert(day(3), day(8), "b");
+        tree.insert(day(9), day(12), "c");
+
+        List<String> found = new ArrayList<>();
+        tree.forEachOverlap(day(4), day(9), found::add);
+
+        assertEquals(3, found.size());
+    }
+
+    @Test
+    public void agreesWithLinearScan() {
+        Random random = new Random(42);
+        List<int[]> intervals = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(5000);
+            int stop = start + random.nextInt(30);
+            intervals.add(new int[]{start, stop});
+            tree.insert(day(start), day(stop), "i" + i);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(5100);
+            int stop = start + random.nextInt(10);
+
+            boolean expected = intervals.stream().anyMatch(in -> in[0] <= stop && in[1] >= start);
+            long expectedCount = intervals.stream().filter(in -> in[0] <= stop && in[1] >= start).count();
+
+            List<String> found = new ArrayList<>();
+            tree.forEachOverlap(day(start), day(stop), found::add);
+
+            assertEquals(expected, tree.overlaps(day(start), day(stop)));
+            assertEquals(expectedCount, found.size());
+        }
+    }
+
+    @Test
+    public void treeBuiltFromSortedIntervalsFindsTheSameOverlaps() {
+        List<int[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) intervals.add(new int[]{day(i * 3), day(i * 3 + i % 7)});
+
+        IntervalTree<int[]> built = IntervalTree.ofSorted(intervals, in -> in[0], in -> in[1]);
+        IntervalTree<int[]> inserted = new IntervalTree<>();
+        intervals.forEach(in -> inserted.insert(in[0], in[1], in));
+
+        assertEquals(500, built.size());
+        for (int i = 0; i < 1600; i++) {
+            assertEquals(inserted.overlaps(day(i), day(i + 1)), built.overlaps(day(i), day(i + 1)));
+        }
+    }
+
+    private int day(int offset) {
+        return (int) EPOCH.plusDays(offset).toEpochDay();
+    }
+}
@@ -0,0 +1,69 @@
+package gateways;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class LongMapTest {
+
+    private LongMap<String> map = new LongMap<>();
+
+    @Test
+    public void findsWhatWasPut() {
+        assertNull(map.put(42, "answer"));
+        assertNull(map.put(-7, "negative"));
+        assertNull(map.put(0, "zero"));
+
+        assertEquals("answer", map.get(42));
+        assertEquals("negative", map.get(-7));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(43));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void replacesInPlace() {
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals(Arrays.asList("uno", "two"), map.values());
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void listsValuesInKeyOrderHoweverTheyCame() {
+        TreeMap<Long, String> expected = new TreeMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(20_000) * 31L;
+            map.put(key, "v" + key);
+            expected.put(key, "v" + key);
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+        for (long key : expected.keySet()) assertEquals("v" + key, map.get(key));
+        assertEquals(expected.size(), map.size());
+    }
+
+    @Test
+    public void keepsIncreasingKeysInOrderAsTheyGrow() {
+        IdGenerator ids = new IdGenerator(1);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long id = ids.next();
+            map.put(id, IdGenerator.format(id));
+            expected.add(IdGenerator.format(id));
+        }
+
+        assertEquals(expected, map.values());
+    }
+}
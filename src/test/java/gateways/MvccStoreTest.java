@@ -0,0 +1,129 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Dose;
+import entities.Drug;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MvccStoreTest {
+
+    private MvccStore<Drug> store = new MvccStore<>();
+
+    @Test
+    public void versionTakenBeforeAWriteStaysAsItWas() {
+        store.put(drug("drug#1", "Arnica"));
+        MvccStore.Version<Drug> before = store.current();
+
+        store.put(drug("drug#1", "Arnica Montana"));
+        store.put(drug("drug#2", "Belladonna"));
+
+        assertEquals("Arnica", before.get("drug#1").getName());
+        assertNull(before.get("drug#2"));
+        assertEquals(1, before.size());
+
+        MvccStore.Version<Drug> after = store.current();
+        assertEquals("Arnica Montana", after.get("drug#1").getName());
+        assertEquals(2, after.size());
+        assertEquals(before.getNumber() + 2, after.getNumber());
+    }
+
+    @Test
+    public void readersShareTheStoredEntityAndCannotChangeIt() {
+        store.put(drug("drug#1", "Arnica"));
+
+        Drug read = store.current().get("drug#1");
+        assertSame(read, store.current().get("drug#1"));
+        assertTrue(read.isFrozen());
+
+        try {
+            read.setName("Belladonna");
+            fail("a stored drug must not change");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("Arnica", store.current().get("drug#1").getName());
+        }
+    }
+
+    @Test
+    public void savedEntityStaysTheCallers() {
+        Drug drug = drug("drug#1", "Arnica");
+        store.put(drug);
+
+        drug.setName("Belladonna");
+
+        assertFalse(drug.isFrozen());
+        assertEquals("Arnica", store.current().get("drug#1").getName());
+    }
+
+    @Test
+    public void freezesWhatAnEntityHolds() {
+        MvccStore<Dosage> dosages = new MvccStore<>();
+        Dosage dosage = new Dosage();
+        dosage.setId("dosage#1");
+        Dose dose = new Dose();
+        dose.setQuantity(2);
+        dose.setForm("pill");
+        dosage.setDose(dose);
+        dosages.put(dosage);
+
+        assertTrue(dosages.current().get("dosage#1").getDose().isFrozen());
+        assertFalse(dosage.getDose().isFrozen());
+    }
+
+    @Test
+    public void listsAllInIdOrderOncePerVersion() {
+        List<Drug> drugs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) drugs.add(drug(String.format("drug#%03d", (i * 37) % 100), "Arnica"));
+        store.putAll(drugs);
+
+        List<Drug> all = store.current().findAll();
+
+        assertEquals(100, all.size());
+        for (int i = 0; i < 100; i++) assertEquals(String.format("drug#%03d", i), all.get(i).getId());
+        assertSame(all, store.current().findAll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void storesOnlyEntitiesWithAnId() {
+        store.put(new Drug());
+    }
+
+    @Test
+    public void readersSeeWholeBatchesWhileTheyAreWritten() throws InterruptedException {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                List<String> names = store.current().findAll().stream().map(Drug::getName).distinct().collect(Collectors.toList());
+                if (names.size() > 1) torn.set(names.toString());
+            }
+        });
+        reader.start();
+
+        for (int round = 0; round < 200; round++) {
+            List<Drug> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) batch.add(drug("drug#" + i, "round " + round));
+            store.putAll(batch);
+        }
+        writing.set(false);
+        reader.join();
+
+        assertNull(torn.get());
+        assertEquals("round 199", store.current().get("drug#0").getName());
+    }
+
+    private static Drug drug(String id, String name) {
+        Drug drug = new Drug();
+        drug.setId(id);
+        drug.setName(name);
+        return drug;
+    }
+}
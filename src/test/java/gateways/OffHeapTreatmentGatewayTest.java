@@ -0,0 +1,119 @@
+package gateways;
+
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import entities.TreatmentPeriod;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class OffHeapTreatmentGatewayTest {
+
+    private OffHeapTreatmentGateway gateway = new OffHeapTreatmentGateway();
+
+    private Drug drug, anotherDrug;
+
+    @Before
+    public void setUp() {
+        drug = new Drug("Arsen Alb");
+        drug.setId("drug#1");
+
+        anotherDrug = new Drug("Vocara");
+        anotherDrug.setId("drug#2");
+    }
+
+    @Test
+    public void materializesSavedTreatment() {
+        Dosage dosage = new Dosage();
+        dosage.setId("dosage#1");
+
+        Treatment t = treatment(drug).between("2017-03-16", "2017-04-15").build();
+        t.setDosage(dosage);
+        t.setPeriod(new TreatmentPeriod(1, ChronoUnit.MONTHS));
+        gateway.save(t);
+
+        Treatment found = gateway.findById(t.getId());
+
+        assertEquals(t, found);
+        assertEquals(drug, found.getDrug());
+        assertEquals(dosage, found.getDosage());
+        assertEquals(t.getStartsOn(), found.getStartsOn());
+        assertEquals(t.getStopsOn(), found.getStopsOn());
+        assertEquals(t.getPeriod(), found.getPeriod());
+    }
+
+    @Test
+    public void unknownIdIsNotFound() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        assertNull(gateway.findById("1"));
+        assertNull(gateway.findById("not a row"));
+    }
+
+    @Test
+    public void detectsOverlapForTheSameDrugOnly() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+        gateway.save(treatment(anotherDrug).between("2017-06-01", "2017-06-10").build());
+
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-04-15", "2017-04-16").build()));
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2017-03-15", "2017-03-16").build()));
+        assertFalse(gateway.doesTreatmentExist(treatment(drug).between("2017-04-16", "2017-04-20").build()));
+        assertFalse(gateway.doesTreatmentExist(treatment(drug).between("2017-06-01", "2017-06-10").build()));
+        assertFalse(gateway.doesTreatmentExist(treatment(anotherDrug).between("2017-03-16", "2017-04-15").build()));
+    }
+
+    @Test
+    public void treatmentsOverlapOnlyTreatmentsOfTheSamePatient() {
+        Treatment first = treatment(drug).ofPatient("patient#1").between("2017-03-16", "2017-04-15").build();
+        assertTrue(gateway.saveIfNoOverlap(first));
+
+        Treatment samePatient = treatment(drug).ofPatient("patient#1").between("2017-04-01", "2017-04-20").build();
+        Treatment anotherPatient = treatment(drug).ofPatient("patient#2").between("2017-04-01", "2017-04-20").build();
+        Treatment noPatient = treatment(drug).between("2017-04-01", "2017-04-20").build();
+
+        assertFalse(gateway.saveIfNoOverlap(samePatient));
+        assertTrue(gateway.saveIfNoOverlap(anotherPatient));
+        assertTrue(gateway.saveIfNoOverlap(noPatient));
+        assertFalse(gateway.doesTreatmentExist(treatment(drug).between("2017-03-01", "2017-03-20").build()));
+
+        assertEquals("patient#1", gateway.findById(first.getId()).getPatientId());
+        assertEquals("patient#2", gateway.findById(anotherPatient.getId()).getPatientId());
+        assertNull(gateway.findById(noPatient.getId()).getPatientId());
+    }
+
+    @Test
+    public void savesBatchSkippingOverlappingTreatments() {
+        gateway.save(treatment(drug).between("2017-03-16", "2017-04-15").build());
+
+        Treatment overlapping = treatment(drug).between("2017-04-01", "2017-04-20").build();
+        Treatment laterOne = treatment(drug).between("2017-05-01", "2017-05-20").build();
+        Treatment overlapsLaterOne = treatment(drug).between("2017-05-10", "2017-05-12").build();
+        Treatment otherDrug = treatment(anotherDrug).between("2017-04-01", "2017-04-20").build();
+
+        List<Treatment> saved = gateway.saveAll(Arrays.asList(overlapping, laterOne, overlapsLaterOne, otherDrug));
+
+        assertEquals(Arrays.asList(laterOne, otherDrug), saved);
+        assertEquals(3, gateway.size());
+        assertEquals(3, gateway.findAll().size());
+    }
+
+    @Test
+    public void growsBeyondOneChunk() {
+        for (int i = 0; i < 70_000; i++) {
+            LocalDate day = LocalDate.of(2000, 1, 1).plusDays(i);
+            assertTrue(gateway.saveIfNoOverlap(treatment(i % 2 == 0 ? drug : anotherDrug).between(day, day).build()));
+        }
+
+        assertEquals(70_000, gateway.size());
+        assertEquals(LocalDate.of(2000, 1, 1).plusDays(69_999), gateway.findById("69999").getStartsOn());
+        assertTrue(gateway.doesTreatmentExist(treatment(drug).between("2000-01-01", "2000-01-01").build()));
+    }
+}
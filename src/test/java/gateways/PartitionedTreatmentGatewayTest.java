@@ -0,0 +1,106 @@
+package gateways;
+
+import doubles.TreatmentBuilder;
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class PartitionedTreatmentGatewayTest {
+
+    private PartitionedTreatmentGateway gateway = new PartitionedTreatmentGateway(4);
+
+    private Drug drug, anotherDrug;
+
+    @Before
+    public void setUp() {
+        drug = new Drug("Arsen Alb");
+        drug.setId("drug#1");
+
+        anotherDrug = new Drug("Vocara");
+        anotherDrug.setId("drug#2");
+    }
+
+    @Test
+    public void overlapIsPerPatient() {
+        TreatmentBuilder first = treatment(drug).between("2017-03-16", "2017-04-15");
+        TreatmentBuilder overlapping = treatment(drug).between("2017-04-01", "2017-04-20");
+
+        assertTrue(gateway.saveIfNoOverlap(first.ofPatient("patient#1").build()));
+        assertTrue(gateway.saveIfNoOverlap(first.ofPatient("patient#2").build()));
+        assertTrue(gateway.saveIfNoOverlap(first.ofPatient(null).build()));
+
+        assertFalse(gateway.saveIfNoOverlap(overlapping.ofPatient("patient#1").build()));
+        assertFalse(gateway.doesTreatmentExist(overlapping.ofPatient("patient#3").build()));
+        assertEquals(3, gateway.size());
+    }
+
+    @Test
+    public void batchKeepsItsOrderAcrossPartitions() {
+        TreatmentBuilder treatment = treatment(drug).between("2017-03-16", "2017-04-15");
+        List<Treatment> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) batch.add(treatment.ofPatient("patient#" + i % 7).build());
+
+        List<Treatment> saved = gateway.saveAll(batch);
+
+        assertEquals(batch.subList(0, 7), saved);
+    }
+
+    @Test
+    public void mergesScansOfEveryPartition() {
+        TreatmentBuilder treatment = treatment(drug).dosed("pill", 1, 2);
+        gateway.save(treatment(anotherDrug).ofPatient("patient#1").between("2017-03-01", "2017-03-10").build());
+        gateway.save(treatment.ofPatient("patient#2").between("2017-03-01", "2017-03-10").build());
+        gateway.save(treatment.ofPatient("patient#3").between("2017-03-06", "2017-03-15").build());
+
+        assertEquals(Arrays.asList(drug, anotherDrug), gateway.findPrescribedDrugs(null, 10));
+        assertEquals(Arrays.asList(drug), gateway.findPrescribedDrugs(null, 1));
+        assertEquals(2 * (10 + 10), gateway.findDemand(drug.getId(), LocalDate.of(2017, 3, 1), LocalDate.of(2017, 3, 31)));
+        assertEquals(3, gateway.findAll().size());
+    }
+
+    @Test
+    public void restoresIntoTheSamePartitions() {
+        TreatmentBuilder treatment = treatment(drug).between("2017-03-01", "2017-03-10");
+        gateway.save(treatment.ofPatient("patient#1").build());
+        gateway.save(treatment.ofPatient("patient#2").build());
+
+        PartitionedTreatmentGateway restored = new PartitionedTreatmentGateway(4);
+        restored.restoreSorted(gateway.findAllInIndexOrder());
+
+        assertEquals(gateway.findAll(), restored.findAll());
+        Treatment overlapping = treatment.ofPatient("patient#2").between("2017-03-05", "2017-03-06").build();
+        assertFalse(restored.saveIfNoOverlap(overlapping));
+    }
+
+    @Test
+    public void patientsPrescribeConcurrentlyWithoutOverlapping() throws Exception {
+        TreatmentBuilder builder = treatment(drug).between("2017-03-01", "2017-03-10");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> saves = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                Treatment treatment = builder.ofPatient("patient#" + i % 40).build();
+                saves.add(executor.submit(() -> gateway.saveIfNoOverlap(treatment)));
+            }
+
+            int saved = 0;
+            for (Future<Boolean> save : saves) if (save.get()) saved++;
+
+            assertEquals(40, saved);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
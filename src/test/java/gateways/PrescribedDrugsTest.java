@@ -0,0 +1,89 @@
+package gateways;
+
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class PrescribedDrugsTest {
+
+    private PrescribedDrugs view = new PrescribedDrugs();
+
+    @Test
+    public void drugStaysPrescribedUntilItsLastTreatmentIsRemoved() {
+        Drug drug = drug(1);
+
+        view.added(drug);
+        view.added(drug);
+        view.removed(drug);
+
+        assertEquals(1, view.treatmentCount(drug.getId()));
+        assertEquals(Arrays.asList(drug), view.page(null, 10));
+
+        view.removed(drug);
+
+        assertEquals(0, view.treatmentCount(drug.getId()));
+        assertTrue(view.page(null, 10).isEmpty());
+    }
+
+    @Test
+    public void removingUnknownDrugChangesNothing() {
+        view.removed(drug(1));
+
+        assertTrue(view.page(null, 10).isEmpty());
+    }
+
+    @Test
+    public void gatewayViewMatchesFullRecompute() {
+        IndexedTreatmentGateway gateway = new IndexedTreatmentGateway(4);
+        Random random = new Random(7);
+
+        List<Treatment> batch = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Treatment treatment = treatment(drug(random.nextInt(50)))
+                    .forDays(random.nextInt(3000), random.nextInt(60))
+                    .build();
+            switch (i % 3) {
+                case 0: gateway.save(treatment); break;
+                case 1: gateway.saveIfNoOverlap(treatment); break;
+                default: batch.add(treatment);
+            }
+        }
+        gateway.saveAll(batch);
+
+        assertMatchesRecompute(gateway);
+
+        IndexedTreatmentGateway restored = new IndexedTreatmentGateway();
+        restored.restoreSorted(gateway.findAllInIndexOrder());
+
+        assertMatchesRecompute(restored);
+    }
+
+    private static void assertMatchesRecompute(IndexedTreatmentGateway gateway) {
+        Map<String, Long> counts = gateway.findAll().stream()
+                .collect(Collectors.groupingBy(t -> t.getDrug().getId(), Collectors.counting()));
+        List<String> distinct = counts.keySet().stream().sorted().collect(Collectors.toList());
+
+        List<String> viewed = gateway.findPrescribedDrugs(null, Integer.MAX_VALUE).stream()
+                .map(Drug::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(distinct, viewed);
+        counts.forEach((drugId, count) -> assertEquals(count.intValue(), gateway.countTreatmentsOf(drugId)));
+    }
+
+    private static Drug drug(int number) {
+        Drug drug = new Drug("Drug " + number);
+        drug.setId(String.format("drug#%03d", number));
+        return drug;
+    }
+}
@@ -0,0 +1,115 @@
+package metrics;
+
+import doubles.DosageInMemoryGateway;
+import doubles.DrugInMemoryGateway;
+import doubles.TreatmentInMemoryGateway;
+import entities.Dosage;
+import entities.Drug;
+import org.junit.Before;
+import org.junit.Test;
+import usecases.prescribetreatment.PrescribeTreatmentException;
+import usecases.prescribetreatment.PrescribeTreatmentRequest;
+import usecases.prescribetreatment.PrescribeTreatmentUseCase;
+import usecases.prescribetreatment.PrescribeTreatmentValidator;
+import usecases.prescribetreatment.RejectionReason;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedPrescribeTreatmentUseCaseTest {
+
+    private DrugInMemoryGateway drugGateway = new DrugInMemoryGateway();
+    private DosageInMemoryGateway dosageGateway = new DosageInMemoryGateway();
+    private PrescribeMetrics metrics = PrescribeMetrics.enabled();
+
+    private PrescribeTreatmentUseCase useCase;
+    private Drug drug;
+    private Dosage dosage;
+
+    @Before
+    public void setUp() {
+        useCase = new InstrumentedPrescribeTreatmentUseCase(new TreatmentInMemoryGateway(),
+                drugGateway, dosageGateway, new PrescribeTreatmentValidator(), metrics);
+
+        drug = drugGateway.save(new Drug("Arsen Alb"));
+        dosage = dosageGateway.save(new Dosage());
+    }
+
+    @Test
+    public void recordsLatencyOfEveryStage() {
+        useCase.prescribe(request());
+
+        PrescribeMetrics.Snapshot snapshot = metrics.snapshot();
+        for (Stage stage : Stage.values()) {
+            assertEquals(stage.name(), 1, snapshot.latency(stage).getCount());
+        }
+    }
+
+    @Test
+    public void rejectedOverlapIsCheckedButNotSaved() {
+        useCase.prescribe(request());
+        rejected(request());
+
+        PrescribeMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.latency(Stage.OVERLAP_CHECK).getCount());
+        assertEquals(1, snapshot.latency(Stage.SAVE).getCount());
+    }
+
+    @Test
+    public void countsRejectionsByReason() {
+        useCase.prescribe(request());
+
+        rejected(request());
+        rejected(request().addDrugId("nonExistingDrugId"));
+        rejected(request().addDosageId("nonExistingDosageId"));
+        rejected(request().addDosageId("nonExistingDosageId"));
+
+        PrescribeMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.rejections(RejectionReason.OVERLAP));
+        assertEquals(1, snapshot.rejections(RejectionReason.MISSING_DRUG));
+        assertEquals(2, snapshot.rejections(RejectionReason.MISSING_DOSAGE));
+        assertEquals(0, snapshot.rejections(RejectionReason.VALIDATION));
+        assertEquals(5, snapshot.latency(Stage.PRESCRIBE).getCount());
+    }
+
+    @Test
+    public void countsRejectionsOfBatch() {
+        useCase.prescribeAll(Arrays.asList(request(), request(), request().addDrugId("nonExistingDrugId")));
+
+        PrescribeMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.rejections(RejectionReason.OVERLAP));
+        assertEquals(1, snapshot.rejections(RejectionReason.MISSING_DRUG));
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        PrescribeMetrics disabled = PrescribeMetrics.disabled();
+        PrescribeTreatmentUseCase plain = new InstrumentedPrescribeTreatmentUseCase(new TreatmentInMemoryGateway(),
+                drugGateway, dosageGateway, new PrescribeTreatmentValidator(), disabled);
+
+        plain.prescribe(request());
+
+        assertEquals(0, disabled.snapshot().latency(Stage.PRESCRIBE).getCount());
+        assertTrue(InstrumentedDrugGateway.of(drugGateway, disabled) == drugGateway);
+    }
+
+    private void rejected(PrescribeTreatmentRequest request) {
+        try {
+            useCase.prescribe(request);
+        } catch (PrescribeTreatmentException e) {
+            return;
+        }
+        throw new AssertionError("Expected the prescription to be rejected");
+    }
+
+    private PrescribeTreatmentRequest request() {
+        return new PrescribeTreatmentRequest()
+                .addStartDate("2017-03-16")
+                .addPeriodAmount("1")
+                .addPeriodUnit("Months")
+                .addDrugId(drug.getId())
+                .addDosageId(dosage.getId());
+    }
+}
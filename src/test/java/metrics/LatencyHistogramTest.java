@@ -0,0 +1,84 @@
+package metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void emptyHistogram() {
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.percentile(99));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedError() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.index(value);
+            long upper = LatencyHistogram.upperBound(index);
+
+            assertTrue(upper >= value);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value);
+            assertTrue(upper - value <= value / 32);
+        }
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.upperBound(LatencyHistogram.index(value)));
+        }
+    }
+
+    @Test
+    public void reportsPercentiles() {
+        for (int value = 1; value <= 1000; value++) histogram.record(value * 1000L);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_500, snapshot.getMean(), 0.001);
+        assertWithin(500_000, snapshot.percentile(50));
+        assertWithin(990_000, snapshot.percentile(99));
+        assertEquals(1_000_000, snapshot.percentile(100));
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        histogram.record(-5);
+
+        assertEquals(0, histogram.snapshot().percentile(100));
+    }
+
+    @Test
+    public void recordsFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) histogram.record(i);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(80_000, histogram.snapshot().getCount());
+    }
+
+    private void assertWithin(long expected, long actual) {
+        assertTrue(String.format("%d is not within 1/32 of %d", actual, expected),
+                Math.abs(actual - expected) <= expected / 32);
+    }
+}
@@ -0,0 +1,81 @@
+package usecases;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.Assert.*;
+
+public class ParsersTest {
+
+    @Test
+    public void parsesIsoDates() {
+        assertEquals(LocalDate.of(2017, Month.MARCH, 16), Parsers.parseIsoDate("2017-03-16"));
+        assertEquals(LocalDate.of(2016, Month.FEBRUARY, 29), Parsers.parseIsoDate("2016-02-29"));
+    }
+
+    @Test
+    public void malformedDatesAreNull() {
+        assertNull(Parsers.parseIsoDate(null));
+        assertNull(Parsers.parseIsoDate(""));
+        assertNull(Parsers.parseIsoDate("2017 03 16"));
+        assertNull(Parsers.parseIsoDate("2017-3-16"));
+        assertNull(Parsers.parseIsoDate("2017-13-01"));
+        assertNull(Parsers.parseIsoDate("2017-00-01"));
+        assertNull(Parsers.parseIsoDate("2017-02-29"));
+        assertNull(Parsers.parseIsoDate("1900-02-29"));
+        assertNull(Parsers.parseIsoDate("2017-04-31"));
+        assertNull(Parsers.parseIsoDate("2017-04-0x"));
+    }
+
+    @Test
+    public void agreesWithIsoLocalDateFormatter() {
+        LocalDate day = LocalDate.of(1999, 12, 1);
+        for (int i = 0; i < 2000; i++, day = day.plusDays(1)) {
+            assertEquals(day, Parsers.parseIsoDate(day.toString()));
+        }
+
+        String[] samples = {"2000-02-29", "2100-02-29", "2017-06-31", "2017-06-30", "0000-01-01", "9999-12-31"};
+        for (String sample : samples) {
+            assertEquals(sample, isoLocalDate(sample), Parsers.parseIsoDate(sample));
+        }
+    }
+
+    @Test
+    public void parsesLongs() {
+        assertEquals(0, Parsers.parseLong("0"));
+        assertEquals(42, Parsers.parseLong("+42"));
+        assertEquals(-1, Parsers.parseLong("-1"));
+        assertEquals(Long.MAX_VALUE, Parsers.parseLong(String.valueOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void malformedLongs() {
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong(null));
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong(""));
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong("-"));
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong("one"));
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong("1.5"));
+        assertEquals(Parsers.MALFORMED, Parsers.parseLong("9223372036854775808"));
+    }
+
+    @Test
+    public void parsesChronoUnitsIgnoringCase() {
+        assertEquals(ChronoUnit.MONTHS, Parsers.parseChronoUnit("Months"));
+        assertEquals(ChronoUnit.DAYS, Parsers.parseChronoUnit("days"));
+        assertNull(Parsers.parseChronoUnit("Fortnights"));
+        assertNull(Parsers.parseChronoUnit(null));
+    }
+
+    private LocalDate isoLocalDate(String value) {
+        try {
+            return LocalDate.parse(value, DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
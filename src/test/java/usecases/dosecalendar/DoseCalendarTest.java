@@ -0,0 +1,109 @@
+package usecases.dosecalendar;
+
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static doubles.TreatmentBuilder.EPOCH;
+import static doubles.TreatmentBuilder.treatment;
+import static org.junit.Assert.*;
+
+public class DoseCalendarTest {
+
+    @Test
+    public void addsUpOverlappingTreatmentsOfADrugPerForm() {
+        Drug drug = drug(1);
+        DoseCalendar calendar = DoseCalendar.of(Arrays.asList(
+                treatment(drug).dosed("pill", 3, 1).forDays(0, 2).build(),
+                treatment(drug).dosed("pill", 1, 1).forDays(1, 1).build(),
+                treatment(drug).dosed("drop", 5, 1).forDays(2, 3).build()));
+
+        assertEquals(Arrays.asList(
+                dose(0, drug, "pill", 3),
+                dose(1, drug, "pill", 4),
+                dose(2, drug, "drop", 5),
+                dose(2, drug, "pill", 4),
+                dose(3, drug, "drop", 5),
+                dose(4, drug, "drop", 5),
+                dose(5, drug, "drop", 5)),
+                calendar.byDay(EPOCH, EPOCH.plusDays(10)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void clipsTreatmentsToTheRange() {
+        Drug drug = drug(1);
+        DoseCalendar calendar = DoseCalendar.of(Arrays.asList(treatment(drug).dosed("pill", 2, 1).forDays(0, 30).build()));
+
+        assertEquals(Arrays.asList(dose(10, drug, "pill", 2), dose(11, drug, "pill", 2)),
+                calendar.byDay(EPOCH.plusDays(10), EPOCH.plusDays(11)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void sweepsMatchCountingEveryDay() {
+        Random random = new Random(11);
+        List<Treatment> treatments = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            treatments.add(treatment(drug(random.nextInt(20)))
+                    .dosed(random.nextBoolean() ? "pill" : "drop", 1 + random.nextInt(5), 1)
+                    .forDays(random.nextInt(200), random.nextInt(40))
+                    .build());
+        }
+        treatments.add(new Treatment());
+
+        DoseCalendar calendar = DoseCalendar.of(treatments);
+        LocalDate last = EPOCH.plusDays(180);
+        List<DailyDose> expected = countEveryDay(treatments, EPOCH.plusDays(20), last);
+
+        assertEquals(expected, calendar.byDay(EPOCH.plusDays(20), last).collect(Collectors.toList()));
+
+        Comparator<DailyDose> byDrug = Comparator.comparing((DailyDose d) -> d.getDrug().getId())
+                .thenComparing(DailyDose::getDay)
+                .thenComparing(DailyDose::getForm);
+        expected.sort(byDrug);
+
+        assertEquals(expected, calendar.byDrug(EPOCH.plusDays(20), last).collect(Collectors.toList()));
+        assertEquals(expected, calendar.byDrug(EPOCH.plusDays(20), last).parallel().collect(Collectors.toList()));
+    }
+
+    private static List<DailyDose> countEveryDay(List<Treatment> treatments, LocalDate first, LocalDate last) {
+        List<DailyDose> doses = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            Map<String, Long> totals = new TreeMap<>();
+            Map<String, Drug> drugs = new TreeMap<>();
+
+            for (Treatment t : treatments) {
+                if (t.getDrug() == null || day.isBefore(t.getStartsOn()) || day.isAfter(t.getStopsOn())) continue;
+
+                String key = t.getDrug().getId() + "/" + t.getDosage().getDose().getForm();
+                totals.merge(key, (long) t.getDosage().totalDailyDose(), Long::sum);
+                drugs.put(key, t.getDrug());
+            }
+
+            for (Map.Entry<String, Long> total : totals.entrySet()) {
+                String form = total.getKey().substring(total.getKey().indexOf('/') + 1);
+                doses.add(new DailyDose(day, drugs.get(total.getKey()), form, total.getValue()));
+            }
+        }
+        return doses;
+    }
+
+    private static DailyDose dose(int day, Drug drug, String form, long quantity) {
+        return new DailyDose(EPOCH.plusDays(day), drug, form, quantity);
+    }
+
+    private static Drug drug(int number) {
+        Drug drug = new Drug("Drug " + number);
+        drug.setId(String.format("drug#%02d", number));
+        return drug;
+    }
+}
@@ -0,0 +1,149 @@
+package usecases.prescribetreatment;
+
+import doubles.DosageInMemoryGateway;
+import doubles.DrugInMemoryGateway;
+import doubles.TreatmentInMemoryGateway;
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import usecases.AsyncGateways;
+import usecases.DrugGateway;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncPrescribeTreatmentUseCaseTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private TreatmentInMemoryGateway treatmentGateway = new TreatmentInMemoryGateway();
+    private CountDownLatch dosageLookupStarted = new CountDownLatch(1);
+
+    // a drug lookup that only finishes once the dosage lookup has started
+    private DrugInMemoryGateway drugGateway = new DrugInMemoryGateway() {
+        @Override
+        public Drug findById(String id) {
+            try {
+                if (!dosageLookupStarted.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Lookups are sequential");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.findById(id);
+        }
+    };
+
+    private DosageInMemoryGateway dosageGateway = new DosageInMemoryGateway() {
+        @Override
+        public Dosage findById(String id) {
+            dosageLookupStarted.countDown();
+            return super.findById(id);
+        }
+    };
+
+    private AsyncPrescribeTreatmentUseCase useCase;
+    private PrescribeTreatmentRequest request;
+    private Drug drug;
+
+    @Before
+    public void setUp() {
+        useCase = new AsyncPrescribeTreatmentUseCase(
+                treatmentGateway, drugGateway, dosageGateway, new PrescribeTreatmentValidator(), executor);
+
+        drug = drugGateway.save(new Drug("Arsen Alb"));
+        Dosage dosage = dosageGateway.save(new Dosage());
+
+        request = new PrescribeTreatmentRequest()
+                .addStartDate("2017-03-16")
+                .addPeriodAmount("1")
+                .addPeriodUnit("Months")
+                .addDrugId(drug.getId())
+                .addDosageId(dosage.getId());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void looksUpDrugAndDosageConcurrently() throws Exception {
+        Treatment t = useCase.prescribe(request).get(10, TimeUnit.SECONDS);
+
+        assertNotNull(t.getId());
+        assertEquals(drug, t.getDrug());
+        assertEquals(1, treatmentGateway.findAll().size());
+    }
+
+    @Test
+    public void rejectionFailsTheFuture() throws Exception {
+        useCase.prescribe(request).get(10, TimeUnit.SECONDS);
+
+        try {
+            useCase.prescribe(request).get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PrescribeTreatmentException);
+            assertEquals(RejectionReason.OVERLAP, ((PrescribeTreatmentException) e.getCause()).getReason());
+        }
+    }
+
+    @Test
+    public void tryPrescribeCompletesWithFailure() throws Exception {
+        request.addDosageId("missing");
+
+        PrescribeTreatmentResult result = useCase.tryPrescribe(request).get(10, TimeUnit.SECONDS);
+
+        assertEquals(RejectionReason.MISSING_DOSAGE, result.getReason());
+    }
+
+    @Test
+    public void invalidRequestCompletesWithoutLookups() throws Exception {
+        request.addStartDate("");
+
+        PrescribeTreatmentResult result = useCase.tryPrescribe(request).get(10, TimeUnit.SECONDS);
+
+        assertEquals(RejectionReason.VALIDATION, result.getReason());
+        assertEquals(1, dosageLookupStarted.getCount());
+    }
+
+    @Test
+    public void periodsThatCannotEndOnADateCompleteWithFailure() throws Exception {
+        for (PrescribeTreatmentRequest rejected : new PrescribeTreatmentRequest[]{
+                request.addPeriodUnit("Forever"),
+                new PrescribeTreatmentRequest()
+                        .addStartDate("2017-03-16")
+                        .addPeriodAmount("2000000000")
+                        .addPeriodUnit("Years")
+                        .addDrugId(drug.getId())
+                        .addDosageId("dosage#1")}) {
+            PrescribeTreatmentResult result = useCase.tryPrescribe(rejected).get(10, TimeUnit.SECONDS);
+
+            assertEquals(RejectionReason.VALIDATION, result.getReason());
+        }
+    }
+
+    @Test
+    public void blockingAdapterRethrowsTheCauseOfFailure() {
+        DrugGateway failing = AsyncGateways.blocking(AsyncGateways.async(new DrugInMemoryGateway() {
+            @Override
+            public Drug findById(String id) {
+                throw new IllegalStateException("store is down");
+            }
+        }, executor));
+
+        try {
+            failing.findById("any");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("store is down", e.getMessage());
+        }
+    }
+}
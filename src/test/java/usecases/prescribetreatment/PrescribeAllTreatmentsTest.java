@@ -0,0 +1,146 @@
+package usecases.prescribetreatment;
+
+import doubles.DosageInMemoryGateway;
+import doubles.DrugInMemoryGateway;
+import doubles.TreatmentInMemoryGateway;
+import entities.Dosage;
+import entities.Drug;
+import entities.Treatment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PrescribeAllTreatmentsTest {
+
+    private TreatmentInMemoryGateway treatmentGateway = new TreatmentInMemoryGateway();
+    private CountingDrugGateway drugGateway = new CountingDrugGateway();
+    private CountingDosageGateway dosageGateway = new CountingDosageGateway();
+
+    private PrescribeTreatmentUseCase useCase;
+
+    private Drug drug, anotherDrug;
+    private Dosage dosage;
+
+    @Before
+    public void setUp() {
+        useCase = new PrescribeTreatmentUseCase(
+                treatmentGateway, drugGateway, dosageGateway, new PrescribeTreatmentValidator());
+
+        drug = drugGateway.save(new Drug("Arsen Alb"));
+        anotherDrug = drugGateway.save(new Drug("Vocara"));
+        dosage = dosageGateway.save(new Dosage());
+    }
+
+    @Test
+    public void prescribesEveryTreatmentOfBatch() {
+        List<PrescribeTreatmentResult> results = useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017-03-16"),
+                request(anotherDrug, "2017-03-16"),
+                request(drug, "2017-05-16")));
+
+        assertEquals(3, results.size());
+        results.forEach(result -> assertTrue(result.isSuccess()));
+        assertEquals(3, treatmentGateway.findAll().size());
+    }
+
+    @Test
+    public void resolvesDrugsAndDosagesOncePerBatch() {
+        useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017-03-16"),
+                request(anotherDrug, "2017-03-16"),
+                request(drug, "2017-05-16")));
+
+        assertEquals(1, drugGateway.batchLookups);
+        assertEquals(2, drugGateway.lookedUpIds);
+        assertEquals(1, dosageGateway.batchLookups);
+        assertEquals(1, dosageGateway.lookedUpIds);
+    }
+
+    @Test
+    public void rejectsOverlapWithinBatch() {
+        List<PrescribeTreatmentResult> results = useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017-03-16"),
+                request(drug, "2017-04-01")));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getError().contains("overlaps"));
+    }
+
+    @Test
+    public void rejectsOverlapWithStoredTreatment() {
+        Treatment stored = useCase.prescribe(request(drug, "2017-03-16"));
+
+        List<PrescribeTreatmentResult> results = useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017-04-01"),
+                request(anotherDrug, "2017-04-01")));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertNotEquals(stored.getId(), results.get(1).getTreatment().getId());
+    }
+
+    @Test
+    public void reportsFailuresPerItemWithoutAbortingBatch() {
+        List<PrescribeTreatmentResult> results = useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017 03 16"),
+                request(drug, "2017-03-16").addDrugId("nonExistingDrugId"),
+                request(drug, "2017-03-16").addDosageId("nonExistingDosageId"),
+                request(drug, "2017-03-16")));
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("No drug found with 'nonExistingDrugId' id", results.get(1).getError());
+        assertEquals("No dosage found with 'nonExistingDosageId' id", results.get(2).getError());
+        assertTrue(results.get(3).isSuccess());
+    }
+
+    @Test
+    public void rejectsPeriodsThatCannotEndOnADate() {
+        List<PrescribeTreatmentResult> results = useCase.prescribeAll(Arrays.asList(
+                request(drug, "2017-03-16").addPeriodUnit("Hours"),
+                request(drug, "2017-03-16").addPeriodAmount("2000000000").addPeriodUnit("Years"),
+                request(drug, "2017-03-16")));
+
+        assertEquals(RejectionReason.VALIDATION, results.get(0).getReason());
+        assertEquals(RejectionReason.VALIDATION, results.get(1).getReason());
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    private PrescribeTreatmentRequest request(Drug drug, String startDate) {
+        return new PrescribeTreatmentRequest()
+                .addStartDate(startDate)
+                .addPeriodAmount("1")
+                .addPeriodUnit("Months")
+                .addDrugId(drug.getId())
+                .addDosageId(dosage.getId());
+    }
+
+    private static class CountingDrugGateway extends DrugInMemoryGateway {
+        private int batchLookups;
+        private int lookedUpIds;
+
+        @Override
+        public List<Drug> findByIds(Collection<String> ids) {
+            batchLookups++;
+            lookedUpIds += ids.size();
+            return super.findByIds(ids);
+        }
+    }
+
+    private static class CountingDosageGateway extends DosageInMemoryGateway {
+        private int batchLookups;
+        private int lookedUpIds;
+
+        @Override
+        public List<Dosage> findByIds(Collection<String> ids) {
+            batchLookups++;
+            lookedUpIds += ids.size();
+            return super.findByIds(ids);
+        }
+    }
+}
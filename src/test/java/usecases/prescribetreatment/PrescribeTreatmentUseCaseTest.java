@@ -26,7 +26,7 @@ public class PrescribeTreatmentUseCaseTest {
     private TreatmentGateway treatmentGateway = new TreatmentInMemoryGateway();
     private DrugGateway drugGateway = new DrugInMemoryGateway();
     private DosageGateway dosageGateway = new DosageInMemoryGateway();
-    private UseCaseValidator validator = new PrescribeTreatmentValidator();
+    private UseCaseValidator<PrescribeTreatmentCommand> validator = new PrescribeTreatmentValidator();
 
     private PrescribeTreatmentUseCase prescribeTreatmentUseCase;
 
@@ -99,6 +99,13 @@ public class PrescribeTreatmentUseCaseTest {
         prescribeTreatmentUseCase.prescribe(request);
     }
 
+    @Test(expected = PrescribeTreatmentException.class)
+    public void treatmentPeriodUnitToBeKnown() {
+        request.addPeriodUnit("Fortnights");
+
+        prescribeTreatmentUseCase.prescribe(request);
+    }
+
     @Test(expected = PrescribeTreatmentException.class)
     public void inputs_StartOfTreatmentShouldBePresent() {
         PrescribeTreatmentRequest request = new PrescribeTreatmentRequest()
@@ -385,6 +392,77 @@ public class PrescribeTreatmentUseCaseTest {
         prescribeTreatmentUseCase.prescribe(request);
     }
 
+    @Test
+    public void noOverlap_whenPeriodAndDrugAreSameButPatientsAreDifferent() {
+        request.addPatientId("patient#1");
+        prescribeTreatmentUseCase.prescribe(request);
+
+        request.addPatientId("patient#2");
+        Treatment treatment = prescribeTreatmentUseCase.prescribe(request);
+
+        assertEquals("patient#2", treatment.getPatientId());
+    }
+
+    @Test
+    public void tryPrescribeYieldsPersistedTreatment() {
+        PrescribeTreatmentResult result = prescribeTreatmentUseCase.tryPrescribe(request);
+
+        assertTrue(result instanceof PrescribeTreatmentResult.Success);
+        assertNotNull(result.getTreatment().getId());
+        assertNull(result.getReason());
+    }
+
+    @Test
+    public void tryPrescribeReportsRejectionInsteadOfThrowing() {
+        request.addDrugId("missing");
+
+        PrescribeTreatmentResult result = prescribeTreatmentUseCase.tryPrescribe(request);
+
+        assertTrue(result instanceof PrescribeTreatmentResult.Failure);
+        assertEquals(RejectionReason.MISSING_DRUG, result.getReason());
+        assertEquals("No drug found with 'missing' id", result.getError());
+        assertNull(result.getTreatment());
+    }
+
+    @Test
+    public void tryPrescribeReportsOverlap() {
+        prescribeTreatmentUseCase.tryPrescribe(request);
+
+        PrescribeTreatmentResult result = prescribeTreatmentUseCase.tryPrescribe(request);
+
+        assertEquals(RejectionReason.OVERLAP, result.getReason());
+    }
+
+    @Test
+    public void tryPrescribeRejectsPeriodsThatAreNotInDays() {
+        for (String unit : new String[]{"Hours", "Forever"}) {
+            PrescribeTreatmentResult result = prescribeTreatmentUseCase.tryPrescribe(request.addPeriodUnit(unit));
+
+            assertEquals(unit, RejectionReason.VALIDATION, result.getReason());
+        }
+    }
+
+    @Test
+    public void tryPrescribeRejectsPeriodsTooLongToEndOnADate() {
+        PrescribeTreatmentResult result = prescribeTreatmentUseCase.tryPrescribe(
+                request.addPeriodAmount("2000000000").addPeriodUnit("Years"));
+
+        assertEquals(RejectionReason.VALIDATION, result.getReason());
+        assertEquals("'Treatment Period' must end on a date: '2000000000 years' from '2017-03-16'", result.getError());
+    }
+
+    @Test
+    public void prescribeThrowsReasonOfRejection() {
+        request.addPeriodAmount("");
+
+        try {
+            prescribeTreatmentUseCase.prescribe(request);
+            fail();
+        } catch (PrescribeTreatmentException e) {
+            assertEquals(RejectionReason.VALIDATION, e.getReason());
+        }
+    }
+
     private void setUpPrescribeTreatmentRequest() {
         // it ends on 2017-04-15
         request = new PrescribeTreatmentRequest()
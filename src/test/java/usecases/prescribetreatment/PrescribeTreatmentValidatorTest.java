@@ -0,0 +1,153 @@
+package usecases.prescribetreatment;
+
+import org.junit.Test;
+import usecases.ValidationResult;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PrescribeTreatmentValidatorTest {
+
+    private PrescribeTreatmentValidator validator = new PrescribeTreatmentValidator();
+
+    @Test
+    public void validRequestHasNoErrors() {
+        ValidationResult<PrescribeTreatmentCommand> result = validator.validate(validRequest());
+
+        assertTrue(result.isValid());
+        assertTrue(result.errors().isEmpty());
+    }
+
+    @Test
+    public void validRequestIsBuiltIntoCommand() {
+        PrescribeTreatmentCommand command = validator.validate(validRequest().addPatientId("patient#1")).getValue();
+
+        assertEquals(LocalDate.of(2017, Month.MARCH, 16), command.getStartDate());
+        assertEquals(1, command.getPeriodAmount());
+        assertEquals(ChronoUnit.MONTHS, command.getPeriodUnit());
+        assertEquals("drug#1", command.getDrugId());
+        assertEquals("dosage#1", command.getDosageId());
+        assertEquals("patient#1", command.getPatientId());
+    }
+
+    @Test
+    public void invalidRequestHasNoCommand() {
+        assertNull(validator.validate(validRequest().addPeriodAmount("one")).getValue());
+    }
+
+    @Test
+    public void acceptsOnlyDateUnitsForPeriod() {
+        for (String unit : new String[]{"Hours", "Forever", "Eras", "Millis"}) {
+            ValidationResult<PrescribeTreatmentCommand> result = validator.validate(validRequest().addPeriodUnit(unit));
+
+            assertFalse(unit, result.isValid());
+            assertEquals("'Unit of Treatment Period' is malformed: '" + unit + "'", result.errors().get(0));
+        }
+        assertTrue(validator.validate(validRequest().addPeriodUnit("weeks")).isValid());
+    }
+
+    @Test
+    public void reportsErrorsInOrderOfRules() {
+        ValidationResult<PrescribeTreatmentCommand> result = validator.validate(validRequest()
+                .addStartDate("2017 03 16")
+                .addPeriodAmount("0"));
+
+        assertFalse(result.isValid());
+        assertEquals(2, result.errors().size());
+        assertTrue(result.errors().get(0).startsWith("'Start Date' is malformed"));
+        assertEquals("'Amount of Treatment Period' must be greater than zero", result.errors().get(1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void resultIsImmutable() {
+        validator.validate(validRequest().addDrugId("")).errors().clear();
+    }
+
+    @Test
+    public void resultDoesNotChangeWithLaterValidations() {
+        ValidationResult<PrescribeTreatmentCommand> invalid = validator.validate(validRequest().addDrugId(""));
+        validator.validate(validRequest());
+
+        assertFalse(invalid.isValid());
+        assertEquals(1, invalid.errors().size());
+    }
+
+    @Test
+    public void periodMustEndOnADate() {
+        assertTrue(validator.validate(validRequest().addPeriodAmount("121").addPeriodUnit("Months")).isValid());
+        assertTrue(validator.validate(validRequest().addPeriodAmount("500").addPeriodUnit("Years")).isValid());
+
+        // past LocalDate.MAX, and past the int epoch days the stores hold
+        for (String period : new String[]{"1000000000 years", "2000000000 months"}) {
+            String[] amountAndUnit = period.split(" ");
+            ValidationResult<PrescribeTreatmentCommand> result =
+                    validator.validate(validRequest().addPeriodAmount(amountAndUnit[0]).addPeriodUnit(amountAndUnit[1]));
+
+            assertFalse(period, result.isValid());
+            assertNull(result.getValue());
+            assertEquals("'Treatment Period' must end on a date: '" + period + "' from '2017-03-16'", result.errors().get(0));
+        }
+    }
+
+    @Test
+    public void resetRequestCanBeReused() {
+        PrescribeTreatmentRequest request = validRequest().addStartDate("2017 03 16");
+        assertFalse(validator.validate(request).isValid());
+
+        request.reset()
+                .addStartDate("2017-03-17")
+                .addPeriodAmount("2")
+                .addPeriodUnit("Days")
+                .addDrugId("drug#2")
+                .addDosageId("dosage#2");
+
+        PrescribeTreatmentCommand command = validator.validate(request).getValue();
+        assertEquals(LocalDate.of(2017, Month.MARCH, 17), command.getStartDate());
+        assertEquals(2, command.getPeriodAmount());
+    }
+
+    @Test
+    public void resetRequestHasNoParameters() {
+        ValidationResult<PrescribeTreatmentCommand> result = validator.validate(validRequest().reset());
+
+        assertEquals(5, result.errors().size());
+    }
+
+    @Test
+    public void sharedValidatorServesConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                boolean expectValid = i % 2 == 0;
+                PrescribeTreatmentRequest request = expectValid ? validRequest() : validRequest().addPeriodAmount("-1");
+                checks.add(executor.submit(() -> {
+                    ValidationResult<PrescribeTreatmentCommand> result = validator.validate(request);
+                    return result.isValid() == expectValid && result.errors().size() == (expectValid ? 0 : 1);
+                }));
+            }
+
+            for (Future<Boolean> check : checks) assertTrue(check.get(1, TimeUnit.MINUTES));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PrescribeTreatmentRequest validRequest() {
+        return new PrescribeTreatmentRequest()
+                .addStartDate("2017-03-16")
+                .addPeriodAmount("1")
+                .addPeriodUnit("Months")
+                .addDrugId("drug#1")
+                .addDosageId("dosage#1");
+    }
+}